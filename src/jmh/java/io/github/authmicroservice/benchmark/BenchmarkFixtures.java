@@ -0,0 +1,69 @@
+package io.github.authmicroservice.benchmark;
+
+import io.github.authmicroservice.model.dto.VerifiedToken;
+import io.github.authmicroservice.security.key.SigningKeyRing;
+import io.github.authmicroservice.service.JwtService;
+import io.github.authmicroservice.service.TokenRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Сборка сервисов без Spring контекста и БД: значения @Value задаются как в application.properties
+ */
+final class BenchmarkFixtures {
+
+    static final String SECRET_KEY = "mySecretKeyForJWTTokenGenerationAndValidation1234567890";
+
+    static final UserDetails USER = new User("testuser", "password", List.of(
+            new SimpleGrantedAuthority("ROLE_USER"),
+            new SimpleGrantedAuthority("ROLE_CREDIT_USER")
+    ));
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtService jwtService(boolean cacheEnabled, boolean fastCodecEnabled) {
+        SigningKeyRing keyRing = new SigningKeyRing();
+        ReflectionTestUtils.setField(keyRing, "algorithmName", "HS256");
+        ReflectionTestUtils.setField(keyRing, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(keyRing, "privateKeyValue", "");
+        ReflectionTestUtils.setField(keyRing, "publicKeyValue", "");
+        ReflectionTestUtils.setField(keyRing, "retiredPublicKeys", List.of());
+        ReflectionTestUtils.setField(keyRing, "rotationPeriod", Duration.ofDays(1));
+        ReflectionTestUtils.setField(keyRing, "gracePeriod", Duration.ofHours(1));
+        ReflectionTestUtils.invokeMethod(keyRing, "init");
+
+        JwtService jwtService = new JwtService(new SimpleMeterRegistry(), keyRing, new NoRevocations());
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(jwtService, "compactRoles", true);
+        ReflectionTestUtils.setField(jwtService, "fastCodecEnabled", fastCodecEnabled);
+        ReflectionTestUtils.setField(jwtService, "cacheEnabled", cacheEnabled);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 10000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        return jwtService;
+    }
+
+    /**
+     * Отзывов нет: соответствует пустому фильтру Блума
+     */
+    private static final class NoRevocations implements TokenRevocationService {
+
+        @Override
+        public void revoke(VerifiedToken token) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isRevoked(String jti) {
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,59 @@
+package io.github.authmicroservice.benchmark;
+
+import io.github.authmicroservice.security.encoder.CustomPasswordEncoder;
+import io.github.authmicroservice.util.SaltGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomPasswordEncoderBenchmark {
+
+    private static final String LOGIN = "testuser";
+    private static final String EMAIL = "test@example.com";
+    private static final String PASSWORD = "password123";
+
+    /**
+     * Стоимость PBKDF2; в приложении подбирается при старте (PasswordConfig)
+     */
+    @Param({"100000", "310000"})
+    private int iterations;
+
+    private CustomPasswordEncoder passwordEncoder;
+
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new CustomPasswordEncoder(iterations, new SaltGenerator("randomSaltValue1234567890", true),
+                new SimpleMeterRegistry());
+        encodedPassword = passwordEncoder.encode(PASSWORD, LOGIN, EMAIL);
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode(PASSWORD, LOGIN, EMAIL);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches(PASSWORD, encodedPassword, LOGIN, EMAIL);
+    }
+
+}
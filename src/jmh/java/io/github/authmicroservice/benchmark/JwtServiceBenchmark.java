@@ -0,0 +1,66 @@
+package io.github.authmicroservice.benchmark;
+
+import io.github.authmicroservice.model.dto.VerifiedToken;
+import io.github.authmicroservice.service.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск токена и проверка токена так, как это делает JwtAuthenticationFilter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final long CLAIMS_MAX_AGE = 900000;
+
+    @Param({"true", "false"})
+    private boolean cacheEnabled;
+
+    @Param({"true", "false"})
+    private boolean fastCodecEnabled;
+
+    private JwtService jwtService;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkFixtures.jwtService(cacheEnabled, fastCodecEnabled);
+        token = jwtService.generateToken(BenchmarkFixtures.USER);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(BenchmarkFixtures.USER);
+    }
+
+    /**
+     * Последовательность stateless режима фильтра: проверка токена и построение Authentication из claims
+     */
+    @Benchmark
+    public UsernamePasswordAuthenticationToken filterPath() {
+        VerifiedToken verifiedToken = jwtService.verify(token);
+        if (!verifiedToken.isIssuedWithin(CLAIMS_MAX_AGE)) {
+            throw new IllegalStateException("Token is too old for the benchmark");
+        }
+        return new UsernamePasswordAuthenticationToken(verifiedToken.getSubject(), null, verifiedToken.getAuthorities());
+    }
+
+}
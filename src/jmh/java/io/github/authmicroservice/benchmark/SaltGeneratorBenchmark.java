@@ -0,0 +1,31 @@
+package io.github.authmicroservice.benchmark;
+
+import io.github.authmicroservice.util.SaltGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaltGeneratorBenchmark {
+
+    private final SaltGenerator saltGenerator = new SaltGenerator("randomSaltValue1234567890", true);
+
+    @Benchmark
+    public String generateUniqueSalt() {
+        return saltGenerator.generateUniqueSalt("testuser", "test@example.com");
+    }
+
+}
@@ -1,6 +1,7 @@
 package io.github.authmicroservice.controller;
 
 import io.github.authmicroservice.model.dto.JwtResponse;
+import io.github.authmicroservice.model.dto.RefreshRequest;
 import io.github.authmicroservice.model.dto.SigninRequest;
 import io.github.authmicroservice.model.dto.SignupRequest;
 import io.github.authmicroservice.service.AuthService;
@@ -49,4 +50,17 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Обновление JWT токена")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Выдан новый JWT токен и новый refresh токен",
+            content = @Content(schema = @Schema(implementation = JwtResponse.class))
+    )
+    @ApiResponse(responseCode = "401", description = "Refresh токен недействителен")
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        JwtResponse response = authService.refresh(request);
+        return ResponseEntity.ok(response);
+    }
+
 }
@@ -0,0 +1,39 @@
+package io.github.authmicroservice.controller;
+
+import io.github.authmicroservice.security.key.SigningKeyRing;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@Tag(name = "JWKS", description = "Открытые ключи для локальной проверки JWT")
+public class JwksController {
+
+    private final SigningKeyRing keyRing;
+
+    private final Duration cacheMaxAge;
+
+    public JwksController(SigningKeyRing keyRing,
+                          @Value("${application.security.jwt.jwks.cache-max-age:PT1H}") Duration cacheMaxAge) {
+        this.keyRing = keyRing;
+        this.cacheMaxAge = cacheMaxAge;
+    }
+
+    @Operation(summary = "Получение открытых ключей подписи JWT (JWK Set)")
+    @ApiResponse(responseCode = "200", description = "JWK Set; пустой, если используется HS256")
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwkSet() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(cacheMaxAge).cachePublic())
+                .body(keyRing.getJwkSet());
+    }
+
+}
@@ -0,0 +1,113 @@
+package io.github.authmicroservice.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.authmicroservice.exception.TokenNotRevocableException;
+import io.github.authmicroservice.model.dto.TokenIntrospectionRequest;
+import io.github.authmicroservice.model.dto.TokenIntrospectionResponse;
+import io.github.authmicroservice.model.dto.TokenRevocationRequest;
+import io.github.authmicroservice.model.dto.VerifiedToken;
+import io.github.authmicroservice.service.JwtService;
+import io.github.authmicroservice.service.TokenIntrospectionService;
+import io.github.authmicroservice.service.TokenRevocationService;
+import io.jsonwebtoken.JwtException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("api/v1/tokens")
+@Tag(name = "Tokens", description = "API для проверки JWT токенов")
+public class TokenController {
+
+    private final TokenIntrospectionService introspectionService;
+
+    private final TokenRevocationService revocationService;
+
+    private final JwtService jwtService;
+
+    private final ObjectMapper objectMapper;
+
+    public TokenController(TokenIntrospectionService introspectionService,
+                           TokenRevocationService revocationService,
+                           JwtService jwtService,
+                           ObjectMapper objectMapper) {
+        this.introspectionService = introspectionService;
+        this.revocationService = revocationService;
+        this.jwtService = jwtService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Operation(summary = "Пакетная проверка токенов", description = "Доступна только администратору")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Результаты проверки в порядке токенов запроса",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = TokenIntrospectionResponse.class)))
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/introspect")
+    public ResponseEntity<StreamingResponseBody> introspect(@Valid @RequestBody TokenIntrospectionRequest request) {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                introspectionService.introspect(request.getTokens(), result -> {
+                    try {
+                        objectMapper.writeValue(generator, result);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @Operation(summary = "Отзыв токена", description = "Пользователь может отозвать свои токены, администратор – любые")
+    @ApiResponse(responseCode = "204", description = "Токен отозван или уже недействителен")
+    @ApiResponse(responseCode = "400", description = "Токен выпущен без jti и не может быть отозван")
+    @ApiResponse(responseCode = "403", description = "Токен принадлежит другому пользователю")
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revoke(@Valid @RequestBody TokenRevocationRequest request, Authentication authentication) {
+        VerifiedToken token;
+        try {
+            token = jwtService.verify(request.getToken());
+        } catch (JwtException | IllegalArgumentException e) {
+            return ResponseEntity.noContent().build();
+        }
+
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if (!admin && !token.getSubject().equals(authentication.getName())) {
+            throw new AccessDeniedException("Token belongs to another user");
+        }
+
+        if (token.getJti() == null) {
+            throw new TokenNotRevocableException("Token was issued without jti and cannot be revoked");
+        }
+
+        revocationService.revoke(token);
+        return ResponseEntity.noContent().build();
+    }
+
+}
@@ -1,7 +1,13 @@
 package io.github.authmicroservice.controller;
 
+import io.github.authmicroservice.model.dto.BulkRoleAssignmentResponse;
+import io.github.authmicroservice.model.dto.RoleMembersRequest;
+import io.github.authmicroservice.model.dto.RoleMembersResponse;
 import io.github.authmicroservice.model.dto.UserRolesRequest;
 import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.enums.BulkRoleMode;
+import io.github.authmicroservice.service.BulkRoleAssignmentService;
+import io.github.authmicroservice.service.RoleMembershipService;
 import io.github.authmicroservice.service.UserRoleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,16 +15,22 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.AccessDeniedException;
+import java.util.Map;
 
 @RestController
 @RequestMapping("api/v1/user-roles")
@@ -28,8 +40,16 @@ public class UserRolesController {
 
     private final UserRoleService userRoleService;
 
-    public UserRolesController(UserRoleService userRoleService) {
+    private final BulkRoleAssignmentService bulkRoleAssignmentService;
+
+    private final RoleMembershipService roleMembershipService;
+
+    public UserRolesController(UserRoleService userRoleService,
+                               BulkRoleAssignmentService bulkRoleAssignmentService,
+                               RoleMembershipService roleMembershipService) {
         this.userRoleService = userRoleService;
+        this.bulkRoleAssignmentService = bulkRoleAssignmentService;
+        this.roleMembershipService = roleMembershipService;
     }
 
     @Operation(summary = "Сохранение ролей пользователя")
@@ -42,6 +62,45 @@ public class UserRolesController {
 
     }
 
+    @Operation(summary = "Массовое назначение ролей",
+            description = "Тело – NDJSON, по одной строке {\"login\": ..., \"roles\": [...]} на пользователя. "
+                    + "Строки применяются порциями; ошибочные строки перечисляются в ответе и не отменяют остальные")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Итоги обработки",
+            content = @Content(schema = @Schema(implementation = BulkRoleAssignmentResponse.class))
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkRoleAssignmentResponse> assignRolesInBulk(
+            InputStream body,
+            @RequestParam(defaultValue = "REPLACE") BulkRoleMode mode) throws IOException {
+        return ResponseEntity.ok(bulkRoleAssignmentService.assignRoles(body, mode));
+    }
+
+    @Operation(summary = "Пользователи с ролью",
+            description = "Логины в порядке возрастания страницами по курсору: следующая страница запрашивается "
+                    + "с after = nextCursor предыдущей. Ответ строится из индекса в памяти без обращения к БД")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Страница логинов и общее число пользователей с ролью",
+            content = @Content(schema = @Schema(implementation = RoleMembersResponse.class))
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/roles/{role}/users")
+    public ResponseEntity<RoleMembersResponse> getRoleMembers(@PathVariable Role.RoleType role,
+                                                              @Valid RoleMembersRequest request) {
+        return ResponseEntity.ok(roleMembershipService.getMembers(role, request.getAfter(), request.getSize()));
+    }
+
+    @Operation(summary = "Число пользователей по ролям")
+    @ApiResponse(responseCode = "200", description = "Роль –> число пользователей с ней")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/roles/counts")
+    public ResponseEntity<Map<Role.RoleType, Integer>> countRoleMembers() {
+        return ResponseEntity.ok(roleMembershipService.countMembers());
+    }
+
     @Operation(summary = "Получение ролей пользователя")
     @ApiResponse(
             responseCode = "200",
@@ -0,0 +1,131 @@
+package io.github.authmicroservice.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.authmicroservice.model.dto.UserSummary;
+import io.github.authmicroservice.model.dto.UserImportResponse;
+import io.github.authmicroservice.model.dto.UserSearchRequest;
+import io.github.authmicroservice.model.dto.UserSearchResponse;
+import io.github.authmicroservice.model.enums.UserImportFormat;
+import io.github.authmicroservice.service.UserExportService;
+import io.github.authmicroservice.service.UserImportService;
+import io.github.authmicroservice.service.UserSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("api/v1/users")
+@Tag(name = "Users", description = "API для администрирования пользователей")
+public class UsersController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final UserImportService userImportService;
+
+    private final UserExportService userExportService;
+
+    private final UserSearchService userSearchService;
+
+    private final ObjectWriter exportWriter;
+
+    public UsersController(UserImportService userImportService,
+                           UserExportService userExportService,
+                           UserSearchService userSearchService,
+                           ObjectMapper objectMapper) {
+        this.userImportService = userImportService;
+        this.userExportService = userExportService;
+        this.userSearchService = userSearchService;
+        this.exportWriter = objectMapper.writerFor(UserSummary.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+    }
+
+    @Operation(summary = "Поиск пользователей",
+            description = "Страница в порядке логина; следующая запрашивается с after = nextCursor предыдущей")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Страница пользователей",
+            content = @Content(schema = @Schema(implementation = UserSearchResponse.class))
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    public ResponseEntity<UserSearchResponse> searchUsers(@Valid UserSearchRequest request) {
+        return ResponseEntity.ok(userSearchService.search(request));
+    }
+
+    @Operation(summary = "Импорт пользователей из NDJSON",
+            description = "По строке {\"login\": ..., \"email\": ..., \"password\" или \"passwordHash\": ..., \"roles\": [...]} "
+                    + "на пользователя. Ошибочные строки перечисляются в ответе и не отменяют остальные")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Итоги импорта",
+            content = @Content(schema = @Schema(implementation = UserImportResponse.class))
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<UserImportResponse> importNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(userImportService.importUsers(body, UserImportFormat.NDJSON));
+    }
+
+    @Operation(summary = "Импорт пользователей из CSV",
+            description = "Первая строка – заголовок с колонками login, email, password, password_hash, roles; "
+                    + "роли перечисляются через ';'")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Итоги импорта",
+            content = @Content(schema = @Schema(implementation = UserImportResponse.class))
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<UserImportResponse> importCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(userImportService.importUsers(body, UserImportFormat.CSV));
+    }
+
+    /**
+     * Пишет NDJSON прямо в поток ответа на потоке запроса, а не через StreamingResponseBody:
+     * выгрузка миллионов строк дольше таймаута асинхронного запроса
+     */
+    @Operation(summary = "Выгрузка пользователей с ролями",
+            description = "NDJSON, по строке на пользователя в порядке логина; хеши паролей не выгружаются")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Пользователи",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = UserSummary.class))
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        try (JsonGenerator generator = exportWriter.createGenerator(response.getOutputStream())) {
+            userExportService.export(user -> {
+                try {
+                    exportWriter.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+}
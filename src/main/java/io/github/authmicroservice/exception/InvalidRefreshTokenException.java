@@ -0,0 +1,12 @@
+package io.github.authmicroservice.exception;
+
+/**
+ * Refresh токен не найден, истек, отозван или использован повторно
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+
+}
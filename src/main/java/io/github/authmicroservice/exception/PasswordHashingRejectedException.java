@@ -0,0 +1,12 @@
+package io.github.authmicroservice.exception;
+
+/**
+ * Пул хеширования паролей перегружен: запрос отклоняется сразу, не занимая поток
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+}
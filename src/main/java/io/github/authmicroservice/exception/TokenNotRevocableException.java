@@ -0,0 +1,12 @@
+package io.github.authmicroservice.exception;
+
+/**
+ * Токен выпущен без jti: его нельзя записать в revoked_tokens, он действует до истечения срока
+ */
+public class TokenNotRevocableException extends RuntimeException {
+
+    public TokenNotRevocableException(String message) {
+        super(message);
+    }
+
+}
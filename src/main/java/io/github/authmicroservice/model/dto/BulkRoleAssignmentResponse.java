@@ -0,0 +1,33 @@
+package io.github.authmicroservice.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Итог массового назначения ролей")
+public class BulkRoleAssignmentResponse {
+
+    @Schema(description = "Количество непустых строк во входных данных", example = "10000")
+    private long processed;
+
+    @Schema(description = "Количество пользователей, у которых изменились роли", example = "9990")
+    private long changed;
+
+    @Schema(description = "Количество пользователей, роли которых уже совпадали с запрошенными", example = "5")
+    private long unchanged;
+
+    @Schema(description = "Количество строк с ошибками", example = "5")
+    private long failed;
+
+    @Schema(description = "Ошибки по строкам; не больше max-reported-errors первых, общее число – в failed")
+    private List<BulkRowError> errors;
+
+}
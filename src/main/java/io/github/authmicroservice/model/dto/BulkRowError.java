@@ -0,0 +1,23 @@
+package io.github.authmicroservice.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Строка массовой операции, которая не была применена")
+public class BulkRowError {
+
+    @Schema(description = "Номер строки во входных данных (с 1)", example = "42")
+    private long line;
+
+    @Schema(description = "Логин пользователя, если строку удалось разобрать", example = "testuser")
+    private String login;
+
+    @Schema(description = "Причина ошибки", example = "User not found with login: testuser")
+    private String error;
+
+}
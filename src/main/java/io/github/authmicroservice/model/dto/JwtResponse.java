@@ -18,6 +18,9 @@ public class JwtResponse {
     @Schema(description = "JWT токен")
     private String token;
 
+    @Schema(description = "Refresh токен для получения нового JWT токена (одноразовый)")
+    private String refreshToken;
+
     @Schema(description = "Логин пользователя", example = "testuser")
     private String login;
 
@@ -0,0 +1,19 @@
+package io.github.authmicroservice.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO для запроса на обновление JWT токена")
+public class RefreshRequest {
+
+    @Schema(description = "Refresh токен, полученный при входе или предыдущем обновлении")
+    @NotBlank
+    private String refreshToken;
+
+}
@@ -0,0 +1,27 @@
+package io.github.authmicroservice.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Параметры страницы пользователей с ролью")
+public class RoleMembersRequest {
+
+    @Schema(description = "Курсор: логин, после которого начинается страница (nextCursor предыдущей страницы)")
+    private String after;
+
+    @Schema(description = "Размер страницы", example = "100")
+    @Min(value = 1, message = "Size must be between 1 and 1000")
+    @Max(value = 1000, message = "Size must be between 1 and 1000")
+    @Builder.Default
+    private int size = 100;
+
+}
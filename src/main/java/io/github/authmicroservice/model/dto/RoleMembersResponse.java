@@ -0,0 +1,31 @@
+package io.github.authmicroservice.model.dto;
+
+import io.github.authmicroservice.model.entity.Role;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Страница логинов пользователей с ролью в порядке логина")
+public class RoleMembersResponse {
+
+    @Schema(description = "Роль", example = "DEAL_SUPERUSER")
+    private Role.RoleType role;
+
+    @Schema(description = "Общее число пользователей с ролью", example = "42")
+    private int total;
+
+    @Schema(description = "Логины пользователей страницы")
+    private List<String> logins;
+
+    @Schema(description = "Курсор следующей страницы; null, если страница последняя", example = "testuser")
+    private String nextCursor;
+
+}
@@ -0,0 +1,24 @@
+package io.github.authmicroservice.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO для пакетной проверки JWT токенов")
+public class TokenIntrospectionRequest {
+
+    @Schema(description = "Список JWT токенов", example = "[\"eyJhbGciOiJIUzI1NiJ9...\"]")
+    @NotEmpty
+    @Size(max = 10000, message = "No more than 10000 tokens per request")
+    private List<@NotBlank String> tokens;
+
+}
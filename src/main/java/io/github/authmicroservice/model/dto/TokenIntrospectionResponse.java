@@ -0,0 +1,36 @@
+package io.github.authmicroservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Результат проверки JWT токена (в порядке токенов запроса)")
+public class TokenIntrospectionResponse {
+
+    @Schema(description = "Токен действителен")
+    private boolean active;
+
+    @Schema(description = "Логин пользователя", example = "testuser")
+    private String sub;
+
+    @Schema(description = "Роли пользователя", example = "[\"ROLE_USER\"]")
+    private List<String> roles;
+
+    @Schema(description = "Время истечения токена (секунды Unix)", example = "1735689600")
+    private Long exp;
+
+    public static TokenIntrospectionResponse inactive() {
+        return TokenIntrospectionResponse.builder().active(false).build();
+    }
+
+}
@@ -0,0 +1,19 @@
+package io.github.authmicroservice.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO для отзыва JWT токена")
+public class TokenRevocationRequest {
+
+    @Schema(description = "JWT токен, который нужно отозвать", example = "eyJhbGciOiJIUzI1NiJ9...")
+    @NotBlank
+    private String token;
+
+}
@@ -0,0 +1,11 @@
+package io.github.authmicroservice.model.dto;
+
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.enums.Provider;
+
+/**
+ * Строка JPQL проекции пользователя для экспорта: по одной строке на роль, role = null у пользователя без ролей
+ */
+public record UserExportRow(String login, String email, Provider provider, boolean active, String fullName, Role.RoleType role) {
+
+}
@@ -0,0 +1,30 @@
+package io.github.authmicroservice.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Итог импорта пользователей")
+public class UserImportResponse {
+
+    @Schema(description = "Количество строк с пользователями во входных данных", example = "10000")
+    private long processed;
+
+    @Schema(description = "Количество созданных пользователей", example = "9995")
+    private long imported;
+
+    @Schema(description = "Количество строк с ошибками", example = "5")
+    private long failed;
+
+    @Schema(description = "Ошибки по строкам; не больше max-reported-errors первых, общее число – в failed")
+    private List<BulkRowError> errors;
+
+}
@@ -0,0 +1,42 @@
+package io.github.authmicroservice.model.dto;
+
+import io.github.authmicroservice.model.entity.Role;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Строка импорта пользователя; задается password или passwordHash")
+public class UserImportRow {
+
+    @Schema(description = "Логин пользователя", example = "newuser")
+    @NotBlank(message = "Login is required")
+    @Size(min = 3, max = 50, message = "Login must be between 3 and 50 characters")
+    private String login;
+
+    @Schema(description = "Email пользователя", example = "test@mail.com")
+    @NotBlank(message = "Email is required")
+    @Email(message = "Email should be valid")
+    @Size(max = 100, message = "Email must be at most 100 characters")
+    private String email;
+
+    @Schema(description = "Пароль в открытом виде; хешируется при импорте", example = "password123")
+    @Size(min = 6, max = 100, message = "Password must be between 6 and 100 characters")
+    private String password;
+
+    @Schema(description = "Готовый хеш пароля ({pbkdf2-sha256}... или старый формат SHA-256)")
+    @Size(max = 255, message = "Password hash must be at most 255 characters")
+    private String passwordHash;
+
+    @Schema(description = "Роли пользователя (по умолчанию USER)", example = "[\"USER\"]")
+    private List<Role.RoleType> roles;
+
+}
@@ -0,0 +1,125 @@
+package io.github.authmicroservice.model.dto;
+
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.entity.User;
+import io.github.authmicroservice.model.entity.UserRole;
+import io.github.authmicroservice.util.RoleMask;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Неизменяемые данные пользователя для аутентификации, отделенные от JPA сущности, поэтому их можно кэшировать.
+ * Загружаются JPQL проекцией (UserPrincipalRow) без создания сущностей в persistence context;
+ * authorities – общий список из RoleMask, а не новые объекты на каждый вызов.
+ * Email нужен только для проверки паролей старого формата.
+ * Намеренно не реализует CredentialsContainer: иначе ProviderManager после входа стер бы хеш пароля
+ * в экземпляре, который лежит в кэше
+ */
+@Getter
+public final class UserPrincipal implements UserDetails {
+
+    private final String login;
+
+    private final String password;
+
+    private final String email;
+
+    private final boolean enabled;
+
+    private final Set<Role.RoleType> roles;
+
+    private final List<GrantedAuthority> authorities;
+
+    public UserPrincipal(String login, String password, String email, boolean enabled, Collection<Role.RoleType> roles) {
+        this(login, password, email, enabled, roleSet(roles), null);
+    }
+
+    /**
+     * @param authorities готовый список authorities; null – построить по ролям
+     */
+    private UserPrincipal(String login, String password, String email, boolean enabled,
+                          EnumSet<Role.RoleType> roleSet, List<GrantedAuthority> authorities) {
+        this.login = login;
+        this.password = password;
+        this.email = email;
+        this.enabled = enabled;
+        this.roles = Collections.unmodifiableSet(roleSet);
+        this.authorities = authorities != null ? authorities : RoleMask.authorities(RoleMask.fromRoleTypes(roleSet));
+    }
+
+    /**
+     * Собирает principal из строки проекции
+     */
+    public static UserPrincipal from(UserPrincipalRow row) {
+        return new UserPrincipal(row.login(), row.password(), row.email(), row.active(), RoleMask.decode(row.roleMask()));
+    }
+
+    /**
+     * Строит principal из уже загруженного пользователя с ролями (регистрация, OAuth)
+     */
+    public static UserPrincipal from(User user) {
+        List<Role.RoleType> roleTypes = user.getRoles() == null ? List.of() : user.getRoles().stream()
+                .map(UserRole::getRole)
+                .map(Role::getId)
+                .toList();
+        return new UserPrincipal(user.getLogin(), user.getPassword(), user.getEmail(), user.isActive(), roleTypes);
+    }
+
+    /**
+     * Строит principal из проверенного JWT без обращения к БД (stateless режим): пароля и email в токене нет.
+     * Authorities берутся из токена как есть, чтобы не потерять значения вне Role.RoleType; в roles – только роли
+     */
+    public static UserPrincipal from(VerifiedToken token) {
+        EnumSet<Role.RoleType> roles = EnumSet.noneOf(Role.RoleType.class);
+        for (GrantedAuthority authority : token.getAuthorities()) {
+            Role.RoleType roleType = RoleMask.toRoleType(authority.getAuthority());
+            if (roleType != null) {
+                roles.add(roleType);
+            }
+        }
+        return new UserPrincipal(token.getSubject(), null, null, true, roles, token.getAuthorities());
+    }
+
+    public UserPrincipal withPassword(String newPassword) {
+        return new UserPrincipal(login, newPassword, email, enabled, roles);
+    }
+
+    @Override
+    public String getUsername() {
+        return login;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    private static EnumSet<Role.RoleType> roleSet(Collection<Role.RoleType> roles) {
+        EnumSet<Role.RoleType> roleSet = EnumSet.noneOf(Role.RoleType.class);
+        roleSet.addAll(roles);
+        return roleSet;
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal(login=" + login + ", enabled=" + enabled + ", roles=" + roles + ")";
+    }
+
+}
@@ -0,0 +1,8 @@
+package io.github.authmicroservice.model.dto;
+
+/**
+ * JPQL проекция пользователя для аутентификации; роли – в виде RoleMask из users.role_mask
+ */
+public record UserPrincipalRow(String login, String password, String email, boolean active, int roleMask) {
+
+}
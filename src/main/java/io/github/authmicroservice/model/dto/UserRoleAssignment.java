@@ -0,0 +1,10 @@
+package io.github.authmicroservice.model.dto;
+
+import io.github.authmicroservice.model.entity.Role;
+
+/**
+ * Строка JPQL проекции user_roles: id связи, логин пользователя и роль
+ */
+public record UserRoleAssignment(Long id, String login, Role.RoleType role) {
+
+}
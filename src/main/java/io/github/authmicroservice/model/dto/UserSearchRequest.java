@@ -0,0 +1,38 @@
+package io.github.authmicroservice.model.dto;
+
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.enums.Provider;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Фильтры поиска пользователей; не заданные фильтры не применяются")
+public class UserSearchRequest {
+
+    @Schema(description = "Способ регистрации", example = "GOOGLE")
+    private Provider provider;
+
+    @Schema(description = "Роль, которая должна быть у пользователя", example = "ADMIN")
+    private Role.RoleType role;
+
+    @Schema(description = "Активен ли пользователь", example = "false")
+    private Boolean active;
+
+    @Schema(description = "Курсор: логин, после которого начинается страница (nextCursor предыдущей страницы)")
+    private String after;
+
+    @Schema(description = "Размер страницы", example = "50")
+    @Min(value = 1, message = "Size must be between 1 and 500")
+    @Max(value = 500, message = "Size must be between 1 and 500")
+    @Builder.Default
+    private int size = 50;
+
+}
@@ -0,0 +1,24 @@
+package io.github.authmicroservice.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Страница результатов поиска пользователей в порядке логина")
+public class UserSearchResponse {
+
+    @Schema(description = "Пользователи страницы")
+    private List<UserSummary> users;
+
+    @Schema(description = "Курсор следующей страницы; null, если страница последняя", example = "testuser")
+    private String nextCursor;
+
+}
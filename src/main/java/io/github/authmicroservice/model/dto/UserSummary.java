@@ -0,0 +1,36 @@
+package io.github.authmicroservice.model.dto;
+
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.enums.Provider;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Пользователь с ролями для поиска и выгрузки (без хеша пароля)")
+public class UserSummary {
+
+    @Schema(description = "Логин пользователя", example = "testuser")
+    private String login;
+
+    @Schema(description = "Email пользователя", example = "test@mail.com")
+    private String email;
+
+    @Schema(description = "Способ регистрации", example = "LOCAL")
+    private Provider provider;
+
+    @Schema(description = "Активен ли пользователь", example = "true")
+    private boolean active;
+
+    @Schema(description = "Полное имя из OAuth профиля")
+    private String fullName;
+
+    @Schema(description = "Роли пользователя", example = "[\"USER\"]")
+    private List<Role.RoleType> roles;
+
+}
@@ -0,0 +1,62 @@
+package io.github.authmicroservice.model.dto;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Неизменяемый набор claims JWT токена, подпись и срок действия которого уже проверены
+ */
+@Getter
+public final class VerifiedToken {
+
+    private final String jti;
+
+    private final String subject;
+
+    private final List<String> roles;
+
+    private final List<GrantedAuthority> authorities;
+
+    private final Instant issuedAt;
+
+    private final Instant expiration;
+
+    public VerifiedToken(String jti, String subject, List<String> roles, Instant issuedAt, Instant expiration) {
+        this(jti, subject, List.copyOf(roles), toAuthorities(roles), issuedAt, expiration);
+    }
+
+    /**
+     * Конструктор для заранее построенных неизменяемых списков ролей и authorities (см. RoleMask)
+     */
+    public VerifiedToken(String jti, String subject, List<String> roles, List<GrantedAuthority> authorities,
+                         Instant issuedAt, Instant expiration) {
+        this.jti = jti;
+        this.subject = subject;
+        this.roles = roles;
+        this.authorities = authorities;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+    }
+
+    /**
+     * Проверяет, что токен выпущен не раньше, чем maxAge миллисекунд назад
+     */
+    public boolean isIssuedWithin(long maxAge) {
+        return issuedAt != null && issuedAt.toEpochMilli() + maxAge > System.currentTimeMillis();
+    }
+
+    public boolean isExpired() {
+        return expiration.isBefore(Instant.now());
+    }
+
+    private static List<GrantedAuthority> toAuthorities(List<String> roles) {
+        return roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role))
+                .toList();
+    }
+
+}
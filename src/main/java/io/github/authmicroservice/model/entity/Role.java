@@ -29,6 +29,9 @@ public class Role {
     @Column(nullable = false)
     private String name;
 
+    /**
+     * Ordinal роли используется в маске ролей JWT (RoleMask): новые роли добавляются только в конец
+     */
     public enum RoleType {
         USER,
         CREDIT_USER,
@@ -6,6 +6,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,7 +14,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
- * Сущность пользователь –> роль
+ * Сущность пользователь –> роль.
+ * Id выдаются из последовательности блоками (pooled), чтобы вставки нескольких ролей шли одним JDBC batch
  */
 @Entity
 @Table(name = "user_roles")
@@ -24,7 +26,8 @@ import lombok.NoArgsConstructor;
 public class UserRole {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_roles_seq")
+    @SequenceGenerator(name = "user_roles_seq", sequenceName = "user_roles_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
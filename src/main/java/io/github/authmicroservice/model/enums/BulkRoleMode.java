@@ -0,0 +1,18 @@
+package io.github.authmicroservice.model.enums;
+
+/**
+ * Режим массового назначения ролей
+ */
+public enum BulkRoleMode {
+
+    /**
+     * Роли пользователя заменяются ролями из строки (как PUT /save)
+     */
+    REPLACE,
+
+    /**
+     * Роли из строки добавляются к текущим
+     */
+    ADD
+
+}
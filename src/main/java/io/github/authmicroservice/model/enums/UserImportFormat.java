@@ -0,0 +1,18 @@
+package io.github.authmicroservice.model.enums;
+
+/**
+ * Формат файла импорта пользователей
+ */
+public enum UserImportFormat {
+
+    /**
+     * Один JSON объект на строку
+     */
+    NDJSON,
+
+    /**
+     * CSV с заголовком; роли перечисляются через ';'
+     */
+    CSV
+
+}
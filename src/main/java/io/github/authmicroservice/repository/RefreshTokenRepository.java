@@ -0,0 +1,46 @@
+package io.github.authmicroservice.repository;
+
+import io.github.authmicroservice.model.entity.RefreshToken;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Репозиторий для работы с refresh токенами
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Блокирующее чтение: параллельные обмены одного токена выполняются последовательно,
+     * и второй из них обнаруживает повторное использование
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT rt FROM RefreshToken rt WHERE rt.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashForUpdate(String tokenHash);
+
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.familyId = :familyId AND rt.revoked = false")
+    int revokeFamily(UUID familyId);
+
+    /**
+     * Удаление порции истекших токенов
+     * @return количество удаленных строк
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+    DELETE FROM refresh_tokens
+    WHERE id IN (SELECT id FROM refresh_tokens WHERE expires_at < :now LIMIT :batchSize)
+    """, nativeQuery = true)
+    int deleteExpiredBatch(Instant now, int batchSize);
+
+}
@@ -0,0 +1,47 @@
+package io.github.authmicroservice.repository;
+
+import io.github.authmicroservice.model.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Репозиторий для работы с отозванными JWT токенами
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    @Query("SELECT rt.jti FROM RevokedToken rt WHERE rt.expiresAt > :now")
+    List<String> findActiveJtis(Instant now);
+
+    /**
+     * Запись отозванного токена; повторный отзыв того же jti, в том числе параллельный, ничего не меняет
+     * @return 1, если запись добавлена, 0 – если токен уже был отозван
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+    INSERT INTO revoked_tokens (jti, expires_at, revoked_at)
+    VALUES (:jti, :expiresAt, :revokedAt)
+    ON CONFLICT (jti) DO NOTHING
+    """, nativeQuery = true)
+    int insertIfAbsent(String jti, Instant expiresAt, Instant revokedAt);
+
+    /**
+     * Удаление порции записей об уже истекших токенах
+     * @return количество удаленных строк
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+    DELETE FROM revoked_tokens
+    WHERE jti IN (SELECT jti FROM revoked_tokens WHERE expires_at < :now LIMIT :batchSize)
+    """, nativeQuery = true)
+    int deleteExpiredBatch(Instant now, int batchSize);
+
+}
@@ -0,0 +1,78 @@
+package io.github.authmicroservice.repository;
+
+import io.github.authmicroservice.model.entity.Role;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Сверка users.role_mask с user_roles, которая остается источником истины.
+ * Ожидаемая маска считается в SQL выражением CASE, собранным из Role.RoleType, поэтому новая роль не требует правки запроса.
+ * Пользователи читаются страницами по первичному ключу, роли каждого – по уникальному индексу (user_login, role_id)
+ */
+@Repository
+public class RoleMaskRepository {
+
+    private static final String EXPECTED_MASK = expectedMaskExpression();
+
+    private static final RowMapper<MaskRow> ROW_MAPPER = (resultSet, rowNumber) -> new MaskRow(
+            resultSet.getString("login"),
+            resultSet.getInt("role_mask"),
+            resultSet.getInt("expected_mask"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public RoleMaskRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Страница пользователей в порядке логина с сохраненной и вычисленной по user_roles масками
+     * @param after логин, после которого начинается страница; null – с начала
+     */
+    public List<MaskRow> findPage(String after, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("limit", limit);
+        StringBuilder sql = new StringBuilder("SELECT u.login, u.role_mask, ")
+                .append("COALESCE((SELECT bit_or(").append(EXPECTED_MASK).append(") FROM user_roles ur WHERE ur.user_login = u.login), 0)")
+                .append(" AS expected_mask FROM users u\n");
+        if (after != null) {
+            sql.append("WHERE u.login > :after\n");
+            parameters.addValue("after", after);
+        }
+        sql.append("ORDER BY u.login LIMIT :limit");
+        return jdbcTemplate.query(sql.toString(), parameters, ROW_MAPPER);
+    }
+
+    /**
+     * Записывает маску, только если сохраненная не изменилась с момента чтения:
+     * параллельное изменение ролей уже записало актуальную маску
+     * @return true, если маска исправлена
+     */
+    public boolean repair(String login, int storedMask, int expectedMask) {
+        return jdbcTemplate.update("UPDATE users SET role_mask = :expected WHERE login = :login AND role_mask = :stored",
+                new MapSqlParameterSource()
+                        .addValue("login", login)
+                        .addValue("stored", storedMask)
+                        .addValue("expected", expectedMask)) == 1;
+    }
+
+    private static String expectedMaskExpression() {
+        StringBuilder expression = new StringBuilder("CASE ur.role_id");
+        for (Role.RoleType roleType : Role.RoleType.values()) {
+            expression.append(" WHEN '").append(roleType.name()).append("' THEN ").append(1 << roleType.ordinal());
+        }
+        return expression.append(" ELSE 0 END").toString();
+    }
+
+    public record MaskRow(String login, int storedMask, int expectedMask) {
+
+        public boolean consistent() {
+            return storedMask == expectedMask;
+        }
+
+    }
+
+}
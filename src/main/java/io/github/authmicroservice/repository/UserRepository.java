@@ -1,12 +1,21 @@
 package io.github.authmicroservice.repository;
 
+import io.github.authmicroservice.model.dto.UserExportRow;
+import io.github.authmicroservice.model.dto.UserPrincipalRow;
 import io.github.authmicroservice.model.entity.User;
 import io.github.authmicroservice.model.enums.Provider;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с сущностью пользователя
@@ -44,4 +53,49 @@ public interface UserRepository extends JpaRepository<User, String> {
     """)
     Optional<User> findByLoginWithRoles(String login);
 
+    /**
+     * Данные для аутентификации без загрузки сущностей: одна строка по первичному ключу, роли – из role_mask
+     */
+    @Query("""
+    SELECT new io.github.authmicroservice.model.dto.UserPrincipalRow(u.login, u.password, u.email, u.active, u.roleMask)
+    FROM User u
+    WHERE u.login = :login
+    """)
+    Optional<UserPrincipalRow> findPrincipal(String login);
+
+    @Query("SELECT u.login FROM User u WHERE u.login IN :logins")
+    List<String> findExistingLogins(Collection<String> logins);
+
+    @Query("SELECT u.email FROM User u WHERE u.provider = :provider AND u.email IN :emails")
+    List<String> findExistingEmails(Collection<String> emails, Provider provider);
+
+    /**
+     * Все пользователи с ролями в порядке логина, по строке на роль. Читается серверным курсором порциями по 1000 строк;
+     * поток нужно закрыть и читать внутри транзакции
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+    SELECT new io.github.authmicroservice.model.dto.UserExportRow(u.login, u.email, u.provider, u.active, u.fullName, r.id)
+    FROM User u
+    LEFT JOIN u.roles ur
+    LEFT JOIN ur.role r
+    ORDER BY u.login
+    """)
+    Stream<UserExportRow> streamExportRows();
+
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.login = :login")
+    int updatePassword(String login, String password);
+
+    /**
+     * Записывает одинаковую маску ролей нескольким пользователям; вызывается в транзакции, меняющей user_roles
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.roleMask = :roleMask WHERE u.login IN :logins")
+    int updateRoleMask(Collection<String> logins, int roleMask);
+
 }
@@ -1,14 +1,19 @@
 package io.github.authmicroservice.repository;
 
+import io.github.authmicroservice.model.dto.UserRoleAssignment;
 import io.github.authmicroservice.model.entity.Role;
-import io.github.authmicroservice.model.entity.User;
 import io.github.authmicroservice.model.entity.UserRole;
-import org.springframework.data.jpa.repository.EntityGraph;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с таблицей пользователь –> роль
@@ -16,10 +21,32 @@ import java.util.List;
 @Repository
 public interface UserRoleRepository extends JpaRepository<UserRole, Long> {
 
-    @EntityGraph(attributePaths = {"role"})
-    List<UserRole> findByUser(User user);
-
     @Query("SELECT ur.role.id FROM UserRole ur WHERE ur.user.login = :login")
     List<Role.RoleType> findRoleTypesByUserLogin(String login);
 
+    @Query("""
+    SELECT new io.github.authmicroservice.model.dto.UserRoleAssignment(ur.id, ur.user.login, ur.role.id)
+    FROM UserRole ur
+    WHERE ur.user.login IN :logins
+    """)
+    List<UserRoleAssignment> findAssignmentsByUserLogins(Collection<String> logins);
+
+    /**
+     * Все назначения ролей для построения индекса роль –> пользователи; читается курсором внутри транзакции
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new io.github.authmicroservice.model.dto.UserRoleAssignment(ur.id, ur.user.login, ur.role.id) FROM UserRole ur")
+    Stream<UserRoleAssignment> streamAllAssignments();
+
+    /**
+     * Удаляет указанные роли пользователя одним запросом
+     */
+    @Modifying
+    @Query("DELETE FROM UserRole ur WHERE ur.user.login = :login AND ur.role.id IN :roleTypes")
+    int deleteByUserLoginAndRoleTypes(String login, Collection<Role.RoleType> roleTypes);
+
 }
@@ -0,0 +1,94 @@
+package io.github.authmicroservice.repository;
+
+import io.github.authmicroservice.model.dto.UserSearchRequest;
+import io.github.authmicroservice.model.dto.UserSummary;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.enums.Provider;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Поиск пользователей с keyset пагинацией: страница начинается после логина-курсора (login > :after ORDER BY login LIMIT n),
+ * поэтому стоимость не растет с номером страницы, в отличие от OFFSET.
+ * SQL собирается только из заданных фильтров, чтобы планировщик видел точный запрос. Каждому фильтру соответствует индекс
+ * (changeset 010): provider – (provider_type, login), active = false – частичный индекс по login,
+ * role – (role_id, user_login) в user_roles; без фильтров используется первичный ключ.
+ * Флаг active подставляется литералом, иначе частичный индекс не подходит для generic плана
+ */
+@Repository
+public class UserSearchRepository {
+
+    private static final RowMapper<UserSummary> ROW_MAPPER = (resultSet, rowNumber) -> {
+        List<Role.RoleType> roles = new ArrayList<>();
+        Array array = resultSet.getArray("roles");
+        for (Object role : (Object[]) array.getArray()) {
+            roles.add(Role.RoleType.valueOf((String) role));
+        }
+        array.free();
+        return new UserSummary(
+                resultSet.getString("login"),
+                resultSet.getString("email"),
+                Provider.valueOf(resultSet.getString("provider_type")),
+                resultSet.getBoolean("active"),
+                resultSet.getString("full_name"),
+                roles);
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public UserSearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param limit сколько строк вернуть не больше
+     */
+    public List<UserSummary> search(UserSearchRequest request, int limit) {
+        SearchQuery query = buildQuery(request, limit);
+        return jdbcTemplate.query(query.sql(), query.parameters(), ROW_MAPPER);
+    }
+
+    /**
+     * SQL и параметры поиска; открыт для проверки плана запроса в тестах
+     */
+    public SearchQuery buildQuery(UserSearchRequest request, int limit) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT u.login, u.email, u.provider_type, u.active, u.full_name,
+                       ARRAY(SELECT ur.role_id FROM user_roles ur WHERE ur.user_login = u.login ORDER BY ur.role_id) AS roles
+                FROM users u
+                WHERE true
+                """);
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+
+        if (request.getAfter() != null) {
+            sql.append("AND u.login > :after\n");
+            parameters.addValue("after", request.getAfter());
+        }
+        if (request.getProvider() != null) {
+            sql.append("AND u.provider_type = :provider\n");
+            parameters.addValue("provider", request.getProvider().name());
+        }
+        if (request.getActive() != null) {
+            sql.append(request.getActive() ? "AND u.active = true\n" : "AND u.active = false\n");
+        }
+        if (request.getRole() != null) {
+            sql.append("AND EXISTS (SELECT 1 FROM user_roles rf WHERE rf.role_id = :role AND rf.user_login = u.login)\n");
+            parameters.addValue("role", request.getRole().name());
+        }
+        sql.append("ORDER BY u.login\nLIMIT :limit");
+        parameters.addValue("limit", limit);
+
+        return new SearchQuery(sql.toString(), parameters);
+    }
+
+    public record SearchQuery(String sql, MapSqlParameterSource parameters) {
+
+    }
+
+}
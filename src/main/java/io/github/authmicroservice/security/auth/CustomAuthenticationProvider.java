@@ -1,29 +1,47 @@
 package io.github.authmicroservice.security.auth;
 
-import io.github.authmicroservice.model.entity.User;
+import io.github.authmicroservice.model.dto.UserPrincipal;
 import io.github.authmicroservice.security.encoder.CustomPasswordEncoder;
+import io.github.authmicroservice.security.encoder.PasswordHashingExecutor;
 import io.github.authmicroservice.service.CustomUserDetailsService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 
+import java.util.UUID;
+
 /**
- * Класс нужен для обработки аутентификации пользователей используя CustomPasswordEncoder
+ * Класс нужен для обработки аутентификации пользователей используя CustomPasswordEncoder.
+ * Хеши старого формата или с устаревшей стоимостью пересчитываются при успешном входе.
+ * Для несуществующего, отключенного пользователя или пользователя без пароля пароль проверяется
+ * по фиктивному хешу той же стоимости: время ответа не выдает, существует ли логин
  */
 @Component
+@Slf4j
 public class CustomAuthenticationProvider implements AuthenticationProvider {
 
     private final CustomUserDetailsService userDetailsService;
     private final CustomPasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor hashingExecutor;
+
+    /**
+     * PBKDF2 хеш случайного пароля с текущим числом итераций; с ним не совпадает ни один пароль
+     */
+    private final String dummyPassword;
 
     public CustomAuthenticationProvider(CustomUserDetailsService userDetailsService,
-                                        CustomPasswordEncoder passwordEncoder) {
+                                        CustomPasswordEncoder passwordEncoder,
+                                        PasswordHashingExecutor hashingExecutor) {
         this.userDetailsService = userDetailsService;
         this.passwordEncoder = passwordEncoder;
+        this.hashingExecutor = hashingExecutor;
+        this.dummyPassword = passwordEncoder.encode(UUID.randomUUID().toString());
     }
 
     @Override
@@ -31,15 +49,56 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
         String login = authentication.getName();
         String password = authentication.getCredentials().toString();
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(login);
+        UserPrincipal user;
+        try {
+            user = userDetailsService.loadUserByUsername(login);
+        } catch (UsernameNotFoundException e) {
+            throw rejectAfterDummyCheck(password);
+        }
+
+        if (user.getPassword() == null) {
+            throw rejectAfterDummyCheck(password);
+        }
 
-        User user = (User) userDetails;
+        PasswordCheck check = hashingExecutor.execute(() -> {
+            if (!passwordEncoder.matches(password, user.getPassword(), user.getLogin(), user.getEmail())) {
+                return PasswordCheck.MISMATCH;
+            }
+            if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+                return new PasswordCheck(true, passwordEncoder.encode(password));
+            }
+            return PasswordCheck.MATCH;
+        });
 
-        if (!passwordEncoder.matches(password, user.getPassword(), user.getLogin(), user.getEmail())) {
+        if (!check.matches()) {
             throw new BadCredentialsException("Invalid credentials");
         }
 
-        return new UsernamePasswordAuthenticationToken(userDetails, password, userDetails.getAuthorities());
+        if (check.upgradedPassword() != null) {
+            upgradePassword(user, check.upgradedPassword());
+        }
+
+        return new UsernamePasswordAuthenticationToken(user, password, user.getAuthorities());
+    }
+
+    /**
+     * Тратит на отказ столько же времени, сколько проверка настоящего пароля
+     */
+    private BadCredentialsException rejectAfterDummyCheck(String password) {
+        hashingExecutor.execute(() -> passwordEncoder.matches(password, dummyPassword));
+        return new BadCredentialsException("Invalid credentials");
+    }
+
+    /**
+     * Сохраняет пересчитанный хеш; ошибка сохранения не мешает входу – хеш пересчитается при следующем входе
+     */
+    private void upgradePassword(UserDetails userDetails, String encodedPassword) {
+        try {
+            userDetailsService.updatePassword(userDetails, encodedPassword);
+            log.debug("Password hash of user {} upgraded", userDetails.getUsername());
+        } catch (RuntimeException e) {
+            log.warn("Could not upgrade password hash of user {}: {}", userDetails.getUsername(), e.getMessage());
+        }
     }
 
     @Override
@@ -47,4 +106,15 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
         return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
     }
 
+    /**
+     * Результат проверки пароля; upgradedPassword – новый хеш, если старый нужно пересчитать
+     */
+    private record PasswordCheck(boolean matches, String upgradedPassword) {
+
+        static final PasswordCheck MATCH = new PasswordCheck(true, null);
+
+        static final PasswordCheck MISMATCH = new PasswordCheck(false, null);
+
+    }
+
 }
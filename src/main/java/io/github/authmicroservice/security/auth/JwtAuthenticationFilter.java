@@ -1,15 +1,21 @@
 package io.github.authmicroservice.security.auth;
 
+import io.github.authmicroservice.model.dto.UserPrincipal;
+import io.github.authmicroservice.model.dto.VerifiedToken;
 import io.github.authmicroservice.service.JwtService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -18,14 +24,25 @@ import java.io.IOException;
 
 /**
  * Фильтр проверки запроса (выполняется один раз для каждого HTTP запроса)
- * Проверяет наличие JWT токена в заголовке запроса и устанавливает аутентификацию
+ * Проверяет наличие JWT токена в заголовке запроса и устанавливает аутентификацию.
+ * В stateless режиме аутентификация строится из подписанного claim "roles" без обращения к БД,
+ * пока токен моложе application.security.jwt.claims-max-age; более старые токены перепроверяются по БД.
+ * В обоих случаях principal – UserPrincipal, в stateless режиме без пароля и email.
+ * Если пользователь удален или отключен, запрос продолжается без аутентификации
  */
 @Component
+@Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
 
+    @Value("${application.security.jwt.stateless:false}")
+    private boolean stateless;
+
+    @Value("${application.security.jwt.claims-max-age:900000}")
+    private long claimsMaxAge;
+
     public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
@@ -45,12 +62,43 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String jwt = authHeader.substring(7);
-        final String username = jwtService.extractUsername(jwt);
+        final VerifiedToken token;
+
+        try {
+            token = jwtService.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected JWT token: {}", e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final String username = token.getSubject();
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (stateless && token.isIssuedWithin(claimsMaxAge)) {
+                UserPrincipal principal = UserPrincipal.from(token);
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        principal,
+                        null,
+                        principal.getAuthorities()
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            UserDetails userDetails;
+            try {
+                userDetails = userDetailsService.loadUserByUsername(username);
+            } catch (UsernameNotFoundException e) {
+                log.debug("Rejected JWT token of unknown or disabled user: {}", e.getMessage());
+                SecurityContextHolder.clearContext();
+                filterChain.doFilter(request, response);
+                return;
+            }
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (username.equals(userDetails.getUsername())) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
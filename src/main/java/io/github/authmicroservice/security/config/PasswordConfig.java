@@ -1,9 +1,11 @@
 package io.github.authmicroservice.security.config;
 
 import io.github.authmicroservice.security.encoder.CustomPasswordEncoder;
+import io.github.authmicroservice.util.SaltGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
  * Конфигурация для PasswordEncoder
@@ -11,9 +13,21 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class PasswordConfig {
 
+    /**
+     * Число итераций PBKDF2 задается явно (iterations) или подбирается при старте под target-millis,
+     * но не ниже min-iterations
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new CustomPasswordEncoder();
+    public CustomPasswordEncoder passwordEncoder(
+            @Value("${application.security.password-hashing.iterations:0}") int iterations,
+            @Value("${application.security.password-hashing.target-millis:150}") long targetMillis,
+            @Value("${application.security.password-hashing.min-iterations:310000}") int minIterations,
+            SaltGenerator saltGenerator,
+            MeterRegistry meterRegistry) {
+        if (iterations > 0) {
+            return new CustomPasswordEncoder(iterations, saltGenerator, meterRegistry);
+        }
+        return CustomPasswordEncoder.calibrated(targetMillis, minIterations, saltGenerator, meterRegistry);
     }
 
 }
@@ -48,6 +48,7 @@ public class SecurityConfig {
                         .requestMatchers("/", "/login", "/oauth2/**").permitAll()
                         .requestMatchers("api/v1/auth/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
                         .requestMatchers("api/v1/user-roles/**").authenticated()
                         .anyRequest().authenticated()
                 )
@@ -1,48 +1,227 @@
 package io.github.authmicroservice.security.encoder;
 
 import io.github.authmicroservice.util.SaltGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.stereotype.Service;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
 
 /**
- * PasswordEncoder, использует SHA-256 для хеширования паролей с уникальной солью (SaltGenerator)
+ * PasswordEncoder на основе PBKDF2WithHmacSHA256 со случайной солью.
+ * Хеш хранится в виде {pbkdf2-sha256}&lt;iterations&gt;$&lt;salt&gt;$&lt;hash&gt;; число итераций подбирается при старте
+ * под целевое время хеширования на текущем сервере (см. PasswordConfig).
+ * Хеши без префикса – старый формат: SHA-256 с солью из SaltGenerator; они проверяются по-прежнему
+ * и помечаются для перехеширования (upgradeEncoding). Старые хеши, созданные с солью "null"
+ * (глобальная соль раньше не внедрялась), принимаются, пока это разрешено в SaltGenerator;
+ * такие совпадения считаются метрикой password.legacy.null-salt.matches
  */
-@Service
+@Slf4j
 public class CustomPasswordEncoder implements PasswordEncoder {
 
-    public String encode(String password, String login, String email) {
-        try {
-            String salt = SaltGenerator.generateUniqueSalt(login, email);
-            String passwordWithSalt = password + salt;
+    private static final String PREFIX = "{pbkdf2-sha256}";
 
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashedBytes = digest.digest(passwordWithSalt.getBytes(StandardCharsets.UTF_8));
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
 
-            return Base64.getUrlEncoder().encodeToString(hashedBytes);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Hashing algorithm not available", e);
+    private static final int SALT_LENGTH = 16;
+
+    private static final int HASH_BITS = 256;
+
+    private static final int CALIBRATION_ITERATIONS = 20000;
+
+    private static final int CALIBRATION_ROUNDS = 10;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final int iterations;
+
+    private final SaltGenerator saltGenerator;
+
+    private final Counter nullSaltMatches;
+
+    /**
+     * @param iterations    число итераций PBKDF2 для новых хешей
+     * @param saltGenerator соль для проверки хешей старого формата
+     */
+    public CustomPasswordEncoder(int iterations, SaltGenerator saltGenerator, MeterRegistry meterRegistry) {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("PBKDF2 iterations must be positive");
         }
+        this.iterations = iterations;
+        this.saltGenerator = saltGenerator;
+        this.nullSaltMatches = Counter.builder("password.legacy.null-salt.matches")
+                .description("Legacy password hashes that matched only with the \"null\" global salt")
+                .register(meterRegistry);
     }
 
+    /**
+     * Подбирает число итераций, при котором хеширование занимает около targetMillis на этом сервере.
+     * Берется лучший из нескольких замеров, чтобы не занижать стоимость из-за непрогретого JIT
+     * @param minIterations нижняя граница, независимо от скорости сервера
+     */
+    public static CustomPasswordEncoder calibrated(long targetMillis, int minIterations,
+                                                   SaltGenerator saltGenerator, MeterRegistry meterRegistry) {
+        long bestNanos = Long.MAX_VALUE;
+        byte[] salt = new byte[SALT_LENGTH];
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            pbkdf2("calibration-password", salt, CALIBRATION_ITERATIONS);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        long calibrated = targetMillis * 1_000_000L * CALIBRATION_ITERATIONS / Math.max(1, bestNanos);
+        int iterations = (int) Math.min(Integer.MAX_VALUE, Math.max(minIterations, calibrated / 1000 * 1000));
+
+        log.info("Password hashing calibrated: {} PBKDF2 iterations for a {} ms target ({} ns per {} iterations)",
+                iterations, targetMillis, bestNanos, CALIBRATION_ITERATIONS);
+        return new CustomPasswordEncoder(iterations, saltGenerator, meterRegistry);
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Хеширует пароль. login и email используются только старым форматом и для новых хешей не нужны
+     */
+    public String encode(String password, String login, String email) {
+        return encode(password);
+    }
+
+    /**
+     * Проверяет пароль в новом или старом формате
+     */
     public boolean matches(String rawPassword, String encodedPassword, String login, String email) {
-        String encodedRawPassword = encode(rawPassword, login, email);
-        return encodedRawPassword.equals(encodedPassword);
+        if (encodedPassword == null) {
+            return false;
+        }
+        if (encodedPassword.startsWith(PREFIX)) {
+            return matches(rawPassword, encodedPassword);
+        }
+        byte[] expected = encodedPassword.getBytes(StandardCharsets.UTF_8);
+        if (MessageDigest.isEqual(legacyEncode(rawPassword, saltGenerator.generateUniqueSalt(login, email)), expected)) {
+            return true;
+        }
+
+        String nullSalt = saltGenerator.generateNullSalt(login, email);
+        if (nullSalt != null && MessageDigest.isEqual(legacyEncode(rawPassword, nullSalt), expected)) {
+            nullSaltMatches.increment();
+            log.warn("Password of user {} matched a legacy hash with the \"null\" global salt", login);
+            return true;
+        }
+        return false;
     }
 
     @Override
     public String encode(CharSequence rawPassword) {
-        throw new UnsupportedOperationException("Use encode method with login and email parameters");
+        byte[] salt = new byte[SALT_LENGTH];
+        secureRandom.nextBytes(salt);
+        byte[] hash = pbkdf2(rawPassword, salt, iterations);
+
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
     }
 
+    /**
+     * Проверяет пароль в новом формате; для старого формата нужны login и email
+     */
     @Override
     public boolean matches(CharSequence rawPassword, String encodedPassword) {
-        throw new UnsupportedOperationException("Use matches method with login and email parameters");
+        if (encodedPassword == null) {
+            return false;
+        }
+        if (!encodedPassword.startsWith(PREFIX)) {
+            throw new UnsupportedOperationException("Use matches method with login and email parameters for legacy hashes");
+        }
+
+        String[] parts = encodedPassword.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            int hashIterations = Integer.parseInt(parts[0]);
+            byte[] salt = Base64.getDecoder().decode(parts[1]);
+            byte[] expected = Base64.getDecoder().decode(parts[2]);
+            return hashIterations > 0 && MessageDigest.isEqual(expected, pbkdf2(rawPassword, salt, hashIterations));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
     }
 
-}
+    /**
+     * Хеш в одном из поддерживаемых форматов: PBKDF2 с префиксом или старый SHA-256 (Base64 URL, 32 байта).
+     * Используется при импорте готовых хешей, чтобы не сохранить значение, по которому нельзя войти
+     */
+    public boolean isSupported(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        try {
+            if (!encodedPassword.startsWith(PREFIX)) {
+                return Base64.getUrlDecoder().decode(encodedPassword).length == HASH_BITS / 8;
+            }
+            String[] parts = encodedPassword.substring(PREFIX.length()).split("\\$");
+            return parts.length == 3
+                    && Integer.parseInt(parts[0]) > 0
+                    && Base64.getDecoder().decode(parts[1]).length > 0
+                    && Base64.getDecoder().decode(parts[2]).length == HASH_BITS / 8;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Хеш нужно пересчитать: старый формат или меньше итераций, чем сейчас
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        if (!encodedPassword.startsWith(PREFIX)) {
+            return true;
+        }
+        int separator = encodedPassword.indexOf('$', PREFIX.length());
+        try {
+            return separator < 0 || Integer.parseInt(encodedPassword.substring(PREFIX.length(), separator)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
 
+    private static byte[] pbkdf2(CharSequence password, byte[] salt, int iterations) {
+        char[] chars = password.toString().toCharArray();
+        PBEKeySpec spec = new PBEKeySpec(chars, salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Hashing algorithm not available", e);
+        } finally {
+            spec.clearPassword();
+            Arrays.fill(chars, '\0');
+        }
+    }
+
+    private static byte[] legacyEncode(String password, String salt) {
+        try {
+            String passwordWithSalt = password + salt;
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hashedBytes = digest.digest(passwordWithSalt.getBytes(StandardCharsets.UTF_8));
+
+            return Base64.getUrlEncoder().encode(hashedBytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Hashing algorithm not available", e);
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package io.github.authmicroservice.security.handler;
 
 import io.github.authmicroservice.model.dto.GitHubLoginInfo;
 import io.github.authmicroservice.model.dto.GoogleLoginInfo;
+import io.github.authmicroservice.model.dto.UserPrincipal;
 import io.github.authmicroservice.model.entity.User;
 import io.github.authmicroservice.service.GitHubApiService;
 import io.github.authmicroservice.service.JwtService;
@@ -91,7 +92,7 @@ public class OAuth2AuthenticationSuccessHandler implements AuthenticationSuccess
 
             }
 
-            String jwt = jwtService.generateToken(user);
+            String jwt = jwtService.generateToken(UserPrincipal.from(user));
 
             String redirectUrl = UriComponentsBuilder
                     .fromUriString("/oauth2/redirect")
@@ -0,0 +1,26 @@
+package io.github.authmicroservice.security.key;
+
+import io.jsonwebtoken.security.PublicJwk;
+
+import java.security.Key;
+import java.time.Instant;
+
+/**
+ * Ключ из связки ключей подписи JWT
+ * @param keyId - идентификатор ключа (kid); null для ключа токенов без kid
+ * @param signingKey - ключ подписи (секрет или закрытый ключ); null, если ключ только проверяет подписи
+ * @param verificationKey - ключ проверки подписи (секрет или открытый ключ)
+ * @param jwk - открытый ключ для публикации в JWKS; null для HS256
+ * @param notAfter - момент, после которого ключ перестает приниматься при проверке; null - без ограничения
+ */
+public record SigningKey(String keyId, Key signingKey, Key verificationKey, PublicJwk<?> jwk, Instant notAfter) {
+
+    public boolean isUsableAt(Instant instant) {
+        return notAfter == null || instant.isBefore(notAfter);
+    }
+
+    public SigningKey retire(Instant verifyUntil) {
+        return new SigningKey(keyId, null, verificationKey, jwk, verifyUntil);
+    }
+
+}
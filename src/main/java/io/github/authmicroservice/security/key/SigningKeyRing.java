@@ -0,0 +1,347 @@
+package io.github.authmicroservice.security.key;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Связка ключей подписи JWT: один активный ключ для выпуска токенов и набор ключей,
+ * которые еще принимаются при проверке. Выпущенные токены содержат kid, ключ для проверки
+ * находится по нему за O(1). Состояние неизменяемо и заменяется целиком, поэтому чтение не требует блокировок.
+ * <p>
+ * HS256: ключи эпох выводятся из application.security.jwt.secret-key как HMAC(secret, номер эпохи),
+ * поэтому все реплики независимо приходят к одним и тем же ключам. Ключ прошлой эпохи принимается
+ * еще grace-period после ее окончания, ключ следующей - заранее, на случай расхождения часов реплик.
+ * При включенной ротации grace-period не может быть короче срока жизни токена, иначе старт прерывается.
+ * <p>
+ * RS256/EdDSA: заданная ключевая пара не ротируется автоматически, открытые ключи из
+ * application.security.jwt.retired-public-keys продолжают приниматься и публикуются в JWKS.
+ * Без заданной ключевой пары старт прерывается: у каждой реплики были бы свои ключи. Генерация временных
+ * ключей при старте включается application.security.jwt.allow-ephemeral-keys только для разработки;
+ * такие ключи ротируются по расписанию, следующий ключ публикуется в JWKS заранее
+ */
+@Component
+@Slf4j
+public class SigningKeyRing {
+
+    private static final String HMAC_KEY_PREFIX = "hs-";
+
+    private static final long MAX_RETIRED_KEYS = 32;
+
+    @Value("${application.security.jwt.algorithm:HS256}")
+    private String algorithmName;
+
+    @Value("${application.security.jwt.secret-key}")
+    private String secretKey;
+
+    @Value("${application.security.jwt.private-key:}")
+    private String privateKeyValue;
+
+    @Value("${application.security.jwt.public-key:}")
+    private String publicKeyValue;
+
+    @Value("${application.security.jwt.allow-ephemeral-keys:false}")
+    private boolean allowEphemeralKeys;
+
+    @Value("${application.security.jwt.retired-public-keys:}")
+    private List<String> retiredPublicKeys;
+
+    @Value("${application.security.jwt.rotation.period:P1D}")
+    private Duration rotationPeriod;
+
+    @Value("${application.security.jwt.rotation.grace-period:PT1H}")
+    private Duration gracePeriod;
+
+    @Value("${application.security.jwt.expiration}")
+    private long jwtExpiration;
+
+    @Getter
+    private SecureDigestAlgorithm<Key, Key> algorithm;
+
+    private SecretKey masterKey;
+
+    private String keyAlgorithm;
+
+    private boolean generatedKeys;
+
+    private volatile KeyRingState state;
+
+    /**
+     * Источник времени для эпох и сроков приема ключей; подменяется в тестах
+     */
+    private Clock clock = Clock.systemUTC();
+
+    @PostConstruct
+    void init() {
+        Instant now = clock.instant();
+
+        if (rotationPeriod.isPositive() && gracePeriod.toMillis() / rotationPeriod.toMillis() > MAX_RETIRED_KEYS) {
+            throw new IllegalStateException("application.security.jwt.rotation.period " + rotationPeriod
+                    + " is too short for grace-period " + gracePeriod);
+        }
+
+        switch (algorithmName) {
+            case "HS256" -> {
+                algorithm = cast(Jwts.SIG.HS256);
+                masterKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+                state = hmacState(now, now.plus(gracePeriod));
+            }
+            case "RS256" -> {
+                algorithm = cast(Jwts.SIG.RS256);
+                keyAlgorithm = "RSA";
+                state = asymmetricState(now);
+            }
+            case "EdDSA" -> {
+                algorithm = cast(Jwts.SIG.EdDSA);
+                keyAlgorithm = "Ed25519";
+                state = asymmetricState(now);
+            }
+            default -> throw new IllegalStateException("Unsupported JWT algorithm: " + algorithmName);
+        }
+
+        if (isRotationEnabled() && jwtExpiration > gracePeriod.toMillis()) {
+            throw new IllegalStateException("application.security.jwt.rotation.grace-period " + gracePeriod
+                    + " is shorter than application.security.jwt.expiration " + Duration.ofMillis(jwtExpiration)
+                    + ": tokens would be rejected after rotation before they expire");
+        }
+
+        log.info("JWT signing key ring initialized: algorithm {}, active kid {}, rotation {}",
+                algorithmName, state.active().keyId(), isRotationEnabled() ? rotationPeriod : "disabled");
+    }
+
+    /**
+     * Ключ, которым подписываются новые токены
+     */
+    public SigningKey getActiveKey() {
+        return state.active();
+    }
+
+    /**
+     * Ключ проверки подписи по kid из заголовка токена
+     * @param keyId - kid токена; null для токенов, выпущенных до появления kid
+     * @return ключ или null, если ключ неизвестен или срок его приема истек
+     */
+    public Key findVerificationKey(String keyId) {
+        KeyRingState current = state;
+        SigningKey key = keyId == null ? current.legacy() : current.keys().get(keyId);
+        if (key == null || !key.isUsableAt(clock.instant())) {
+            return null;
+        }
+        return key.verificationKey();
+    }
+
+    /**
+     * Открытые ключи в формате JWK Set (RFC 7517); для HS256 набор пуст
+     */
+    public Map<String, Object> getJwkSet() {
+        return state.jwkSet();
+    }
+
+    /**
+     * Плановая ротация: переключает активный ключ по окончании периода и удаляет ключи с истекшим grace-period
+     */
+    @Scheduled(fixedDelayString = "${application.security.jwt.rotation.check-interval:PT1M}")
+    public void rotate() {
+        KeyRingState current = state;
+        Instant now = clock.instant();
+        KeyRingState updated;
+
+        if (masterKey != null) {
+            updated = hmacState(now, current.legacy() != null ? current.legacy().notAfter() : null);
+            if (updated.keys().keySet().equals(current.keys().keySet())) {
+                return;
+            }
+        } else if (generatedKeys && isRotationEnabled()
+                && !now.isBefore(current.activatedAt().plus(rotationPeriod))) {
+            List<SigningKey> retained = new ArrayList<>(retainedKeys(current, now));
+            retained.add(current.active().retire(now.plus(gracePeriod)));
+            updated = buildState(current.next(), generateKey(), retained, null, now);
+        } else {
+            List<SigningKey> retained = retainedKeys(current, now);
+            int expected = retained.size() + (current.next() != null ? 2 : 1);
+            if (expected == current.keys().size()) {
+                return;
+            }
+            updated = buildState(current.active(), current.next(), retained, null, current.activatedAt());
+        }
+
+        state = updated;
+        log.info("JWT signing key ring updated, active kid {}, accepted kids {}",
+                updated.active().keyId(), updated.keys().keySet());
+    }
+
+    private boolean isRotationEnabled() {
+        return rotationPeriod.isPositive() && (masterKey != null || generatedKeys);
+    }
+
+    private KeyRingState hmacState(Instant now, Instant legacyNotAfter) {
+        if (!isRotationEnabled()) {
+            SigningKey master = new SigningKey(null, masterKey, masterKey, null, null);
+            return new KeyRingState(master, null, Map.of(), master, Map.of("keys", List.of()), now);
+        }
+
+        long periodMillis = rotationPeriod.toMillis();
+        long epoch = now.toEpochMilli() / periodMillis;
+        List<SigningKey> previous = new ArrayList<>();
+
+        for (long past = epoch - 1; ; past--) {
+            Instant verifyUntil = Instant.ofEpochMilli((past + 1) * periodMillis).plus(gracePeriod);
+            if (!verifyUntil.isAfter(now)) {
+                break;
+            }
+            previous.add(deriveHmacKey(past).retire(verifyUntil));
+        }
+
+        SigningKey legacy = new SigningKey(null, null, masterKey, null, legacyNotAfter);
+        return buildState(deriveHmacKey(epoch), deriveHmacKey(epoch + 1), previous, legacy,
+                Instant.ofEpochMilli(epoch * periodMillis));
+    }
+
+    private SigningKey deriveHmacKey(long epoch) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(masterKey);
+            String keyId = HMAC_KEY_PREFIX + epoch;
+            SecretKey key = Keys.hmacShaKeyFor(mac.doFinal(keyId.getBytes(StandardCharsets.UTF_8)));
+            return new SigningKey(keyId, key, key, null, null);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not derive JWT signing key: " + e.getMessage(), e);
+        }
+    }
+
+    private KeyRingState asymmetricState(Instant now) {
+        if (privateKeyValue.isBlank() || publicKeyValue.isBlank()) {
+            if (!allowEphemeralKeys) {
+                throw new IllegalStateException("JWT " + algorithmName + " key pair is not configured: set "
+                        + "application.security.jwt.private-key and application.security.jwt.public-key, "
+                        + "or application.security.jwt.allow-ephemeral-keys=true for development");
+            }
+            log.warn("JWT {} key pair is not configured, generating an ephemeral one. "
+                    + "Issued tokens will not survive a restart and are not accepted by other instances", algorithmName);
+            generatedKeys = true;
+            SigningKey next = isRotationEnabled() ? generateKey() : null;
+            return buildState(generateKey(), next, List.of(), null, now);
+        }
+
+        List<SigningKey> retired = retiredPublicKeys.stream()
+                .filter(value -> !value.isBlank())
+                .map(value -> asymmetricKey(new KeyPair(readPublicKey(value), null)))
+                .toList();
+
+        return buildState(asymmetricKey(readKeyPair()), null, retired, null, now);
+    }
+
+    private SigningKey generateKey() {
+        KeyPair keyPair = "RSA".equals(keyAlgorithm)
+                ? Jwts.SIG.RS256.keyPair().build()
+                : Jwks.CRV.Ed25519.keyPair().build();
+        return asymmetricKey(keyPair);
+    }
+
+    private SigningKey asymmetricKey(KeyPair keyPair) {
+        PublicJwk<?> jwk = Jwks.builder()
+                .key(keyPair.getPublic())
+                .algorithm(algorithmName)
+                .publicKeyUse("sig")
+                .idFromThumbprint()
+                .build();
+        return new SigningKey(jwk.getId(), keyPair.getPrivate(), keyPair.getPublic(), jwk, null);
+    }
+
+    private static List<SigningKey> retainedKeys(KeyRingState current, Instant now) {
+        return current.keys().values().stream()
+                .filter(key -> key != current.active() && key != current.next())
+                .filter(key -> key.isUsableAt(now))
+                .toList();
+    }
+
+    private static KeyRingState buildState(SigningKey active, SigningKey next, List<SigningKey> others,
+                                           SigningKey legacy, Instant activatedAt) {
+        Map<String, SigningKey> keys = new HashMap<>();
+        List<PublicJwk<?>> jwks = new ArrayList<>();
+
+        for (SigningKey key : others) {
+            keys.put(key.keyId(), key);
+        }
+        keys.put(active.keyId(), active);
+        if (next != null) {
+            keys.put(next.keyId(), next);
+        }
+
+        keys.values().stream()
+                .map(SigningKey::jwk)
+                .filter(Objects::nonNull)
+                .forEach(jwks::add);
+
+        return new KeyRingState(active, next, Map.copyOf(keys), legacy, Map.of("keys", List.copyOf(jwks)), activatedAt);
+    }
+
+    private KeyPair readKeyPair() {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(keyAlgorithm);
+            PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decodePem(privateKeyValue)));
+            return new KeyPair(readPublicKey(publicKeyValue), privateKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not read JWT " + algorithmName + " key pair: " + e.getMessage(), e);
+        }
+    }
+
+    private PublicKey readPublicKey(String value) {
+        try {
+            return KeyFactory.getInstance(keyAlgorithm).generatePublic(new X509EncodedKeySpec(decodePem(value)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not read JWT " + algorithmName + " public key: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] decodePem(String pem) {
+        String base64 = pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SecureDigestAlgorithm<Key, Key> cast(SecureDigestAlgorithm<?, ?> algorithm) {
+        return (SecureDigestAlgorithm<Key, Key>) algorithm;
+    }
+
+    /**
+     * Снимок связки ключей
+     * @param keys - все принимаемые ключи по kid (активный, следующий и выведенные из оборота)
+     * @param legacy - ключ для токенов без kid
+     */
+    private record KeyRingState(SigningKey active, SigningKey next, Map<String, SigningKey> keys,
+                                SigningKey legacy, Map<String, Object> jwkSet, Instant activatedAt) {
+
+    }
+
+}
@@ -3,6 +3,7 @@ package io.github.authmicroservice.service;
 import io.github.authmicroservice.model.dto.GitHubLoginInfo;
 import io.github.authmicroservice.model.dto.GoogleLoginInfo;
 import io.github.authmicroservice.model.dto.JwtResponse;
+import io.github.authmicroservice.model.dto.RefreshRequest;
 import io.github.authmicroservice.model.dto.SigninRequest;
 import io.github.authmicroservice.model.dto.SignupRequest;
 
@@ -19,6 +20,12 @@ public interface AuthService {
      */
     JwtResponse signin(SigninRequest request);
 
+    /**
+     * Обновление JWT токена по refresh токену без повторной проверки пароля
+     * @return новый JWT токен и новый refresh токен
+     */
+    JwtResponse refresh(RefreshRequest request);
+
     /**
      * Процесс OAuth авторизации через Google
      */
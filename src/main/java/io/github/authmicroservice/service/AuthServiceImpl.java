@@ -2,17 +2,20 @@ package io.github.authmicroservice.service;
 
 import io.github.authmicroservice.model.dto.GitHubLoginInfo;
 import io.github.authmicroservice.model.dto.GoogleLoginInfo;
+import io.github.authmicroservice.model.dto.UserPrincipal;
 import io.github.authmicroservice.model.dto.JwtResponse;
+import io.github.authmicroservice.model.dto.RefreshRequest;
 import io.github.authmicroservice.model.dto.SigninRequest;
 import io.github.authmicroservice.model.dto.SignupRequest;
 import io.github.authmicroservice.model.entity.Role;
 import io.github.authmicroservice.model.entity.User;
 import io.github.authmicroservice.model.entity.UserRole;
 import io.github.authmicroservice.model.enums.Provider;
-import io.github.authmicroservice.repository.RoleRepository;
 import io.github.authmicroservice.repository.UserRepository;
 import io.github.authmicroservice.repository.UserRoleRepository;
 import io.github.authmicroservice.security.encoder.CustomPasswordEncoder;
+import io.github.authmicroservice.security.encoder.PasswordHashingExecutor;
+import io.github.authmicroservice.util.RoleMask;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
@@ -23,7 +26,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -39,31 +42,53 @@ public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
     private final CustomPasswordEncoder passwordEncoder;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final UserRoleRepository userRoleRepository;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final RoleMembershipService roleMembershipService;
+    private final TransactionTemplate transactionTemplate;
 
     public AuthServiceImpl(UserRepository userRepository,
                            CustomPasswordEncoder passwordEncoder,
-                           RoleRepository roleRepository,
+                           RoleRegistry roleRegistry,
                            UserRoleRepository userRoleRepository,
                            JwtService jwtService,
-                           AuthenticationManager authenticationManager) {
+                           AuthenticationManager authenticationManager,
+                           RefreshTokenService refreshTokenService,
+                           PasswordHashingExecutor hashingExecutor,
+                           RoleMembershipService roleMembershipService,
+                           TransactionTemplate transactionTemplate) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.userRoleRepository = userRoleRepository;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
+        this.refreshTokenService = refreshTokenService;
+        this.hashingExecutor = hashingExecutor;
+        this.roleMembershipService = roleMembershipService;
+        this.transactionTemplate = transactionTemplate;
     }
 
+    /**
+     * Пароль хешируется до открытия транзакции, чтобы ожидание пула хеширования не занимало соединение с БД;
+     * проверки уникальности и вставка выполняются в одной транзакции
+     */
     @Override
-    @Transactional
     public void signup(SignupRequest request) {
 
         log.debug("Attempting to register user: {}", request.getLogin());
 
+        String password = hashingExecutor.execute(
+                () -> passwordEncoder.encode(request.getPassword(), request.getLogin(), request.getEmail()));
+
+        transactionTemplate.executeWithoutResult(status -> createLocalUser(request, password));
+    }
+
+    private void createLocalUser(SignupRequest request, String password) {
         if (userRepository.existsById(request.getLogin())) {
             throw new EntityExistsException("User with login " + request.getLogin() + " already exists");
         }
@@ -76,15 +101,16 @@ public class AuthServiceImpl implements AuthService {
                 .login(request.getLogin())
                 .email(request.getEmail())
                 .provider(Provider.LOCAL)
-                .password(passwordEncoder.encode(request.getPassword(), request.getLogin(), request.getEmail()))
+                .password(password)
                 .active(true)
+                .roleMask(RoleMask.fromRoleTypes(List.of(Role.RoleType.USER)))
                 .build();
 
         log.debug("Save user: {}", user.getLogin());
 
         userRepository.save(user);
 
-        Role userRole = roleRepository.findById(Role.RoleType.USER)
+        Role userRole = roleRegistry.findReference(Role.RoleType.USER)
                 .orElseThrow(() -> new EntityNotFoundException("Role USER not found"));
 
         UserRole role = UserRole.builder()
@@ -93,6 +119,7 @@ public class AuthServiceImpl implements AuthService {
                 .build();
 
         userRoleRepository.save(role);
+        roleMembershipService.refresh(user.getLogin());
     }
 
     @Override
@@ -115,10 +142,13 @@ public class AuthServiceImpl implements AuthService {
                     .map(GrantedAuthority::getAuthority)
                     .collect(Collectors.toList());
 
+            String refreshToken = refreshTokenService.issue(userDetails.getUsername());
+
             log.debug("User {} authenticated successfully", userDetails.getUsername());
 
             return JwtResponse.builder()
                     .token(jwt)
+                    .refreshToken(refreshToken)
                     .login(userDetails.getUsername())
                     .roles(roles)
                     .build();
@@ -128,6 +158,29 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
+    @Override
+    public JwtResponse refresh(RefreshRequest request) {
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+
+        UserDetails userDetails = rotation.user();
+
+        String jwt = jwtService.generateToken(userDetails);
+
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        log.debug("Access token refreshed for user {}", userDetails.getUsername());
+
+        return JwtResponse.builder()
+                .token(jwt)
+                .refreshToken(rotation.refreshToken())
+                .login(userDetails.getUsername())
+                .roles(roles)
+                .build();
+    }
+
     @Override
     public JwtResponse googleOauthLoginProcess(GoogleLoginInfo googleUserInfo) {
 
@@ -146,7 +199,7 @@ public class AuthServiceImpl implements AuthService {
             user.setGoogleId(googleUserInfo.getId());
             userRepository.save(user);
 
-            String jwt = jwtService.generateToken(user);
+            String jwt = jwtService.generateToken(UserPrincipal.from(user));
 
             List<String> roles = user.getRoles().stream()
                     .map(UserRole::getRole)
@@ -155,12 +208,13 @@ public class AuthServiceImpl implements AuthService {
 
             return JwtResponse.builder()
                     .token(jwt)
+                    .refreshToken(refreshTokenService.issue(user.getLogin()))
                     .login(user.getLogin())
                     .roles(roles)
                     .build();
         } else {
 
-            Role userRole = roleRepository.findById(Role.RoleType.USER)
+            Role userRole = roleRegistry.findReference(Role.RoleType.USER)
                     .orElseThrow(() -> new IllegalStateException("USER role not found"));
 
             String login = googleUserInfo.getEmail().split("@")[0];
@@ -170,6 +224,7 @@ public class AuthServiceImpl implements AuthService {
                     .email(googleUserInfo.getEmail())
                     .password(null)
                     .active(true)
+                    .roleMask(RoleMask.fromRoleTypes(List.of(Role.RoleType.USER)))
                     .provider(Provider.GOOGLE)
                     .googleId(googleUserInfo.getId())
                     .fullName(googleUserInfo.getName())
@@ -185,11 +240,13 @@ public class AuthServiceImpl implements AuthService {
 
             user.setRoles(new ArrayList<>(List.of(userRoleEntity)));
             user = userRepository.save(user);
+            roleMembershipService.refresh(user.getLogin());
 
-            String jwt = jwtService.generateToken(user);
+            String jwt = jwtService.generateToken(UserPrincipal.from(user));
 
             return JwtResponse.builder()
                     .token(jwt)
+                    .refreshToken(refreshTokenService.issue(user.getLogin()))
                     .login(user.getLogin())
                     .roles(List.of("ROLE_USER"))
                     .build();
@@ -217,7 +274,7 @@ public class AuthServiceImpl implements AuthService {
             user.setGithubId(gitHubUserInfo.getId());
             userRepository.save(user);
 
-            String jwt = jwtService.generateToken(user);
+            String jwt = jwtService.generateToken(UserPrincipal.from(user));
 
             List<String> roles = user.getRoles().stream()
                     .map(UserRole::getRole)
@@ -228,12 +285,13 @@ public class AuthServiceImpl implements AuthService {
 
             return JwtResponse.builder()
                     .token(jwt)
+                    .refreshToken(refreshTokenService.issue(user.getLogin()))
                     .login(user.getLogin())
                     .roles(roles)
                     .build();
         } else {
 
-            Role userRole = roleRepository.findById(Role.RoleType.USER)
+            Role userRole = roleRegistry.findReference(Role.RoleType.USER)
                     .orElseThrow(() -> new IllegalStateException("USER role not found"));
 
             User user = User.builder()
@@ -242,6 +300,7 @@ public class AuthServiceImpl implements AuthService {
                     .githubId(gitHubUserInfo.getId())
                     .password(null)
                     .active(true)
+                    .roleMask(RoleMask.fromRoleTypes(List.of(Role.RoleType.USER)))
                     .provider(Provider.GITHUB)
                     .fullName(gitHubUserInfo.getName())
                     .profilePictureUrl(gitHubUserInfo.getAvatarUrl())
@@ -256,13 +315,15 @@ public class AuthServiceImpl implements AuthService {
 
             user.setRoles(new ArrayList<>(List.of(userRoleEntity)));
             user = userRepository.save(user);
+            roleMembershipService.refresh(user.getLogin());
 
-            String jwt = jwtService.generateToken(user);
+            String jwt = jwtService.generateToken(UserPrincipal.from(user));
 
             log.debug("New GitHub user {} created and authenticated successfully", user.getLogin());
 
             return JwtResponse.builder()
                     .token(jwt)
+                    .refreshToken(refreshTokenService.issue(user.getLogin()))
                     .login(user.getLogin())
                     .roles(List.of("ROLE_USER"))
                     .build();
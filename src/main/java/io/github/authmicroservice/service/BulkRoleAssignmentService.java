@@ -0,0 +1,22 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.BulkRoleAssignmentResponse;
+import io.github.authmicroservice.model.enums.BulkRoleMode;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Массовое назначение ролей пользователям
+ */
+public interface BulkRoleAssignmentService {
+
+    /**
+     * Применяет строки NDJSON вида {"login": "...", "roles": ["..."]}.
+     * Ошибки отдельных строк попадают в ответ и не прерывают обработку остальных
+     * @param body поток NDJSON
+     * @param mode заменить роли пользователя или добавить к текущим
+     */
+    BulkRoleAssignmentResponse assignRoles(InputStream body, BulkRoleMode mode) throws IOException;
+
+}
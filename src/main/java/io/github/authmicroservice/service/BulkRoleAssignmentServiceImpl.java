@@ -0,0 +1,318 @@
+package io.github.authmicroservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.authmicroservice.model.dto.BulkRoleAssignmentResponse;
+import io.github.authmicroservice.model.dto.BulkRowError;
+import io.github.authmicroservice.model.dto.UserRoleAssignment;
+import io.github.authmicroservice.model.dto.UserRolesRequest;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.entity.UserRole;
+import io.github.authmicroservice.model.enums.BulkRoleMode;
+import io.github.authmicroservice.repository.UserRepository;
+import io.github.authmicroservice.repository.UserRoleRepository;
+import io.github.authmicroservice.util.BulkRowErrors;
+import io.github.authmicroservice.util.RoleMask;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация массового назначения ролей.
+ * Тело читается построчно и применяется порциями по chunk-size строк, каждая порция – в своей транзакции:
+ * существующие пользователи и их роли читаются двумя запросами на порцию, снятые роли удаляются одним DELETE,
+ * новые вставляются JDBC batch, users.role_mask обновляется одним UPDATE на каждую различную маску.
+ * Если порция не применилась целиком, ее строки повторяются по одной,
+ * чтобы ошибка одной строки не откатывала остальные
+ */
+@Service
+@Slf4j
+public class BulkRoleAssignmentServiceImpl implements BulkRoleAssignmentService {
+
+    private final UserRepository userRepository;
+
+    private final UserRoleRepository userRoleRepository;
+
+    private final RoleRegistry roleRegistry;
+
+    private final UserPrincipalCache principalCache;
+
+    private final RoleMembershipService roleMembershipService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManager entityManager;
+
+    private final Validator validator;
+
+    private final ObjectReader requestReader;
+
+    private final int chunkSize;
+
+    private final int maxReportedErrors;
+
+    public BulkRoleAssignmentServiceImpl(UserRepository userRepository,
+                                         UserRoleRepository userRoleRepository,
+                                         RoleRegistry roleRegistry,
+                                         UserPrincipalCache principalCache,
+                                         RoleMembershipService roleMembershipService,
+                                         TransactionTemplate transactionTemplate,
+                                         EntityManager entityManager,
+                                         Validator validator,
+                                         ObjectMapper objectMapper,
+                                         @Value("${application.user-roles.bulk.chunk-size:1000}") int chunkSize,
+                                         @Value("${application.user-roles.bulk.max-reported-errors:100}") int maxReportedErrors) {
+        this.userRepository = userRepository;
+        this.userRoleRepository = userRoleRepository;
+        this.roleRegistry = roleRegistry;
+        this.principalCache = principalCache;
+        this.roleMembershipService = roleMembershipService;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(UserRolesRequest.class);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public BulkRoleAssignmentResponse assignRoles(InputStream body, BulkRoleMode mode) throws IOException {
+        Totals totals = new Totals(maxReportedErrors);
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            totals.processed++;
+
+            Row row = parse(line, lineNumber, totals);
+            if (row != null) {
+                chunk.add(row);
+            }
+            if (chunk.size() == chunkSize) {
+                applyChunk(chunk, mode, totals);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            applyChunk(chunk, mode, totals);
+        }
+
+        log.info("Bulk role assignment ({}): {} rows, {} changed, {} unchanged, {} failed",
+                mode, totals.processed, totals.changed, totals.unchanged, totals.errors.count());
+
+        return BulkRoleAssignmentResponse.builder()
+                .processed(totals.processed)
+                .changed(totals.changed)
+                .unchanged(totals.unchanged)
+                .failed(totals.errors.count())
+                .errors(totals.errors.toList())
+                .build();
+    }
+
+    private Row parse(String line, long lineNumber, Totals totals) {
+        UserRolesRequest request;
+        try {
+            request = requestReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            totals.errors.add(lineNumber, null, "Malformed row: " + e.getOriginalMessage());
+            return null;
+        }
+
+        Set<ConstraintViolation<UserRolesRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String error = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            totals.errors.add(lineNumber, request.getLogin(), error);
+            return null;
+        }
+
+        EnumSet<Role.RoleType> roles = EnumSet.noneOf(Role.RoleType.class);
+        for (Role.RoleType roleType : request.getRoles()) {
+            if (roleType == null || !roleRegistry.getRoles().containsKey(roleType)) {
+                totals.errors.add(lineNumber, request.getLogin(), "Role not found: " + roleType);
+                return null;
+            }
+            roles.add(roleType);
+        }
+        return new Row(lineNumber, request.getLogin(), roles);
+    }
+
+    /**
+     * При ошибке порции строки повторяются по логинам: все строки одного логина применяются в одной транзакции,
+     * поэтому повтор дает тот же итог и тот же учет, что и порция целиком
+     */
+    private void applyChunk(List<Row> chunk, BulkRoleMode mode, Totals totals) {
+        try {
+            totals.add(transactionTemplate.execute(status -> applyRows(chunk, mode)));
+        } catch (RuntimeException e) {
+            log.warn("Bulk role chunk starting at line {} failed, applying its rows one by one: {}",
+                    chunk.get(0).line(), e.getMessage());
+            Map<String, List<Row>> rowsByLogin = chunk.stream()
+                    .collect(Collectors.groupingBy(Row::login, LinkedHashMap::new, Collectors.toList()));
+            for (List<Row> loginRows : rowsByLogin.values()) {
+                try {
+                    totals.add(transactionTemplate.execute(status -> applyRows(loginRows, mode)));
+                } catch (RuntimeException rowException) {
+                    loginRows.forEach(row -> totals.errors.add(row.line(), row.login(), rowException.getMessage()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Применяет строки в текущей транзакции; итог считается по логинам, а не по строкам.
+     * Повтор логина внутри порции: в режиме REPLACE действует последняя строка, в режиме ADD роли объединяются
+     * в новый набор, входные строки не изменяются.
+     * Контекст очищается после порции: при open-in-view EntityManager живет весь запрос, и без очистки
+     * сохраненные роли и ссылки на пользователей копились бы до конца загрузки
+     */
+    private Outcome applyRows(List<Row> rows, BulkRoleMode mode) {
+        Outcome outcome = new Outcome();
+
+        Map<String, Row> byLogin = new LinkedHashMap<>();
+        for (Row row : rows) {
+            byLogin.merge(row.login(), row, (previous, next) -> {
+                if (mode == BulkRoleMode.REPLACE) {
+                    return next;
+                }
+                EnumSet<Role.RoleType> roles = EnumSet.copyOf(previous.roles());
+                roles.addAll(next.roles());
+                return new Row(next.line(), next.login(), roles);
+            });
+        }
+
+        Set<String> existingLogins = new HashSet<>(userRepository.findExistingLogins(byLogin.keySet()));
+        Map<String, Map<Role.RoleType, Long>> currentRoles = new HashMap<>();
+        if (!existingLogins.isEmpty()) {
+            for (UserRoleAssignment assignment : userRoleRepository.findAssignmentsByUserLogins(existingLogins)) {
+                currentRoles.computeIfAbsent(assignment.login(), login -> new EnumMap<>(Role.RoleType.class))
+                        .put(assignment.role(), assignment.id());
+            }
+        }
+
+        List<Long> removedIds = new ArrayList<>();
+        List<UserRole> addedRoles = new ArrayList<>();
+        List<String> changedLogins = new ArrayList<>();
+        Map<Integer, List<String>> loginsByMask = new HashMap<>();
+
+        for (Row row : byLogin.values()) {
+            if (!existingLogins.contains(row.login())) {
+                outcome.errors.add(new BulkRowError(row.line(), row.login(), "User not found with login: " + row.login()));
+                continue;
+            }
+            Map<Role.RoleType, Long> current = currentRoles.getOrDefault(row.login(), Map.of());
+            int before = removedIds.size() + addedRoles.size();
+
+            if (mode == BulkRoleMode.REPLACE) {
+                current.forEach((roleType, id) -> {
+                    if (!row.roles().contains(roleType)) {
+                        removedIds.add(id);
+                    }
+                });
+            }
+            for (Role.RoleType roleType : row.roles()) {
+                if (!current.containsKey(roleType)) {
+                    addedRoles.add(UserRole.builder()
+                            .user(userRepository.getReferenceById(row.login()))
+                            .role(roleRegistry.findReference(roleType)
+                                    .orElseThrow(() -> new EntityNotFoundException("Role not found: " + roleType)))
+                            .build());
+                }
+            }
+
+            if (removedIds.size() + addedRoles.size() > before) {
+                changedLogins.add(row.login());
+                EnumSet<Role.RoleType> finalRoles = EnumSet.copyOf(row.roles());
+                if (mode == BulkRoleMode.ADD) {
+                    finalRoles.addAll(current.keySet());
+                }
+                loginsByMask.computeIfAbsent(RoleMask.fromRoleTypes(finalRoles), mask -> new ArrayList<>()).add(row.login());
+            } else {
+                outcome.unchanged++;
+            }
+        }
+
+        if (!removedIds.isEmpty()) {
+            userRoleRepository.deleteAllByIdInBatch(removedIds);
+        }
+        userRoleRepository.saveAll(addedRoles);
+        loginsByMask.forEach((mask, logins) -> userRepository.updateRoleMask(logins, mask));
+        entityManager.flush();
+        entityManager.clear();
+        changedLogins.forEach(principalCache::evict);
+        roleMembershipService.refresh(changedLogins);
+
+        outcome.changed = changedLogins.size();
+        return outcome;
+    }
+
+    private record Row(long line, String login, EnumSet<Role.RoleType> roles) {
+
+    }
+
+    /**
+     * Результат одной транзакции; учитывается только после ее фиксации
+     */
+    private static final class Outcome {
+
+        private long changed;
+
+        private long unchanged;
+
+        private final List<BulkRowError> errors = new ArrayList<>();
+
+    }
+
+    private static final class Totals {
+
+        private long processed;
+
+        private long changed;
+
+        private long unchanged;
+
+        private final BulkRowErrors errors;
+
+        private Totals(int maxReportedErrors) {
+            this.errors = new BulkRowErrors(maxReportedErrors);
+        }
+
+        void add(Outcome outcome) {
+            changed += outcome.changed;
+            unchanged += outcome.unchanged;
+            outcome.errors.forEach(error -> errors.add(error.getLine(), error.getLogin(), error.getError()));
+        }
+
+    }
+
+}
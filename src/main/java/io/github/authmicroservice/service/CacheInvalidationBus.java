@@ -0,0 +1,229 @@
+package io.github.authmicroservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Шина инвалидации локальных кэшей между экземплярами сервиса на Postgres LISTEN/NOTIFY.
+ * Внутри транзакции сообщения собираются и отправляются одним pg_notify перед фиксацией в той же транзакции:
+ * Postgres доставляет их слушателям только после commit и не доставляет при откате.
+ * Каждый экземпляр держит отдельное соединение с LISTEN (не из пула) и при каждом подключении,
+ * в том числе после обрыва, сбрасывает все кэши целиком, так как сообщения за время разрыва потеряны.
+ * Сообщение помечено идентификатором отправившего экземпляра: слушатель может не получать свои же сообщения
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus implements SmartLifecycle {
+
+    static final String CHANNEL = "auth_cache_invalidation";
+
+    private static final String SEPARATOR = ":";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JdbcConnectionDetails connectionDetails;
+
+    private final ObjectProvider<CacheInvalidationListener> listenerProvider;
+
+    /**
+     * Идентификатор экземпляра в сообщениях шины
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${application.security.cache-invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.security.cache-invalidation.poll-interval:PT10S}")
+    private Duration pollInterval;
+
+    @Value("${application.security.cache-invalidation.reconnect-delay:PT5S}")
+    private Duration reconnectDelay;
+
+    private volatile boolean running;
+
+    private volatile Thread listenerThread;
+
+    private Map<String, CacheInvalidationListener> listeners = Map.of();
+
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                JdbcConnectionDetails connectionDetails,
+                                ObjectProvider<CacheInvalidationListener> listenerProvider) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.connectionDetails = connectionDetails;
+        this.listenerProvider = listenerProvider;
+    }
+
+    /**
+     * Сообщает остальным экземплярам, что запись key в области region изменилась.
+     * Внутри транзакции сообщение уходит только вместе с ее фиксацией
+     */
+    public void publish(String region, String key) {
+        if (!enabled) {
+            return;
+        }
+        String payload = nodeId + SEPARATOR + region + SEPARATOR + key;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(Set.of(payload));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> payloads = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, payloads);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    send(payloads);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationBus.this);
+                }
+            });
+            pending = payloads;
+        }
+        pending.add(payload);
+    }
+
+    private void send(Set<String> payloads) {
+        jdbcTemplate.execute("SELECT pg_notify(?, payload) FROM unnest(?::text[]) AS payload",
+                (PreparedStatementCallback<Boolean>) statement -> {
+                    statement.setString(1, CHANNEL);
+                    statement.setArray(2, statement.getConnection().createArrayOf("text", payloads.toArray()));
+                    return statement.execute();
+                });
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            log.info("Cache invalidation bus disabled, local caches are not synchronized between instances");
+            return;
+        }
+        listeners = listenerProvider.orderedStream()
+                .collect(Collectors.toUnmodifiableMap(CacheInvalidationListener::region, Function.identity()));
+        running = true;
+
+        Thread thread = new Thread(this::listen, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+        listenerThread = thread;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = listenerThread;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(pollInterval.toMillis() + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            listenerThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(connectionDetails.getJdbcUrl(),
+                    connectionDetails.getUsername(), connectionDetails.getPassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for cache invalidations on channel {}", CHANNEL);
+                invalidateAll();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int timeout = (int) pollInterval.toMillis();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(timeout);
+                    if (notifications == null || notifications.length == 0) {
+                        if (!connection.isValid(timeout / 1000 + 1)) {
+                            throw new SQLException("Cache invalidation connection is no longer valid");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener disconnected, reconnecting in {}: {}", reconnectDelay, e.getMessage());
+                    sleep(reconnectDelay);
+                }
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        int originEnd = payload.indexOf(SEPARATOR);
+        int regionEnd = originEnd < 0 ? -1 : payload.indexOf(SEPARATOR, originEnd + 1);
+        CacheInvalidationListener listener = regionEnd < 0 ? null : listeners.get(payload.substring(originEnd + 1, regionEnd));
+        if (listener == null) {
+            log.debug("Ignoring cache invalidation for unknown region: {}", payload);
+            return;
+        }
+        if (!listener.acceptsOwnMessages() && nodeId.equals(payload.substring(0, originEnd))) {
+            return;
+        }
+        try {
+            listener.invalidate(payload.substring(regionEnd + 1));
+        } catch (RuntimeException e) {
+            log.warn("Cache invalidation {} failed, flushing region {}: {}", payload, listener.region(), e.getMessage());
+            listener.invalidateAll();
+        }
+    }
+
+    private void invalidateAll() {
+        for (CacheInvalidationListener listener : listeners.values()) {
+            try {
+                listener.invalidateAll();
+            } catch (RuntimeException e) {
+                log.warn("Could not flush cache region {}: {}", listener.region(), e.getMessage());
+            }
+        }
+    }
+
+    private void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package io.github.authmicroservice.service;
+
+/**
+ * Локальный кэш, который получает сообщения об изменениях с других экземпляров через CacheInvalidationBus
+ */
+public interface CacheInvalidationListener {
+
+    /**
+     * Имя области кэша в сообщениях шины; не должно содержать ':'
+     */
+    String region();
+
+    /**
+     * Запись key изменилась на одном из экземпляров
+     */
+    void invalidate(String key);
+
+    /**
+     * Сообщения могли быть потеряны (например, при переподключении): сбросить весь кэш
+     */
+    void invalidateAll();
+
+    /**
+     * Получать ли сообщения, отправленные этим же экземпляром. false – если изменение уже применено
+     * локально при отправке и повторная обработка только нагружает БД
+     */
+    default boolean acceptsOwnMessages() {
+        return true;
+    }
+
+}
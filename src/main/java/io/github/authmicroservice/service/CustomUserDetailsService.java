@@ -1,33 +1,56 @@
 package io.github.authmicroservice.service;
 
-import io.github.authmicroservice.model.entity.User;
+import io.github.authmicroservice.model.dto.UserPrincipal;
 import io.github.authmicroservice.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Сервис для загрузки пользовательских данных по имени пользователя.
  * Реализует UserDetailsService для интеграции с Spring Security
+ * и UserDetailsPasswordService для сохранения пересчитанных хешей паролей.
+ * Пользователи кэшируются в UserPrincipalCache; изменения пользователя должны вызывать его evict
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    private final UserPrincipalCache principalCache;
+
+    public CustomUserDetailsService(UserRepository userRepository, UserPrincipalCache principalCache) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
     }
 
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByLoginWithRoles(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        if (!user.isEnabled()) {
+    public UserPrincipal loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserPrincipal principal = principalCache.get(username, this::loadPrincipal);
+        if (!principal.isEnabled()) {
             throw new UsernameNotFoundException("User is disabled: " + username);
         }
-        return user;
+        return principal;
+    }
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        String login = userDetails.getUsername();
+        if (userRepository.updatePassword(login, newPassword) == 0) {
+            throw new UsernameNotFoundException("User not found: " + login);
+        }
+        principalCache.evict(login);
+        return userDetails instanceof UserPrincipal principal ? principal.withPassword(newPassword) : loadPrincipal(login);
+    }
+
+    private UserPrincipal loadPrincipal(String login) {
+        return userRepository.findPrincipal(login)
+                .map(UserPrincipal::from)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + login));
     }
 
 }
@@ -0,0 +1,508 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.VerifiedToken;
+import io.github.authmicroservice.security.key.SigningKey;
+import io.github.authmicroservice.security.key.SigningKeyRing;
+import io.github.authmicroservice.util.RoleMask;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кодек HS256 токенов фиксированного формата, который выпускает JwtService:
+ * заголовок {"alg":"HS256"} или {"kid":"...","alg":"HS256"} и claims {"rm":..,"jti":..,"sub":..,"iat":..,"exp":..}.
+ * Выдает побайтно те же токены, что и jjwt, но без промежуточных Map, Date и JSON сериализации:
+ * Base64URL пишется напрямую в буфер потока, Mac переиспользуется в пределах потока.
+ * Токены другого вида (список ролей, другие алгоритмы, не ASCII строки) не обрабатываются – sign/verify
+ * возвращают null, и JwtService использует jjwt
+ */
+final class Hs256TokenCodec {
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private static final int MAX_TOKEN_LENGTH = 4096;
+
+    private static final int MAX_CACHED_HEADERS = 64;
+
+    private static final byte[] BASE64URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] BASE64URL_DECODE = new byte[128];
+
+    private static final byte[] HEADER_NO_KID = ascii("{\"alg\":\"HS256\"}");
+    private static final byte[] HEADER_KID_PREFIX = ascii("{\"kid\":\"");
+    private static final byte[] HEADER_KID_SUFFIX = ascii("\",\"alg\":\"HS256\"}");
+
+    private static final byte[] CLAIM_RM = ascii("{\"rm\":");
+    private static final byte[] CLAIM_JTI = ascii(",\"jti\":\"");
+    private static final byte[] CLAIM_SUB = ascii("\",\"sub\":\"");
+    private static final byte[] CLAIM_IAT = ascii("\",\"iat\":");
+    private static final byte[] CLAIM_EXP = ascii(",\"exp\":");
+    private static final byte[] CLAIMS_END = ascii("}");
+
+    static {
+        Arrays.fill(BASE64URL_DECODE, (byte) -1);
+        for (int i = 0; i < BASE64URL.length; i++) {
+            BASE64URL_DECODE[BASE64URL[i]] = (byte) i;
+        }
+    }
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private final SigningKeyRing keyRing;
+
+    /**
+     * Закодированные в Base64URL заголовки по kid ("" – без kid)
+     */
+    private final Map<String, byte[]> encodedHeaders = new ConcurrentHashMap<>();
+
+    Hs256TokenCodec(SigningKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    /**
+     * Подписывает токен
+     * @return токен или null, если значения не укладываются в фиксированный формат
+     */
+    String sign(SigningKey signingKey, String jti, String subject, int roleMask, long issuedAt, long expiration) {
+        if (!(signingKey.signingKey() instanceof SecretKey) || !isPlainAscii(jti) || !isPlainAscii(subject)) {
+            return null;
+        }
+
+        Buffers buffers = BUFFERS.get();
+        Buffer json = buffers.json.reset();
+        json.append(CLAIM_RM).appendLong(roleMask)
+                .append(CLAIM_JTI).appendAscii(jti)
+                .append(CLAIM_SUB).appendAscii(subject)
+                .append(CLAIM_IAT).appendLong(issuedAt)
+                .append(CLAIM_EXP).appendLong(expiration)
+                .append(CLAIMS_END);
+
+        Buffer token = buffers.token.reset();
+        token.append(encodedHeader(signingKey.keyId()))
+                .appendByte('.')
+                .appendBase64Url(json.bytes, 0, json.length);
+
+        byte[] signature = buffers.mac(signingKey.signingKey(), token.bytes, 0, token.length);
+        token.appendByte('.').appendBase64Url(signature, 0, SIGNATURE_LENGTH);
+
+        return new String(token.bytes, 0, token.length, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Проверяет токен фиксированного формата
+     * @return проверенный токен или null, если формат не распознан
+     * @throws SignatureException если подпись не совпадает
+     * @throws ExpiredJwtException если срок действия токена истек
+     */
+    VerifiedToken verify(String token) {
+        int length = token.length();
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (length > MAX_TOKEN_LENGTH || secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            return null;
+        }
+
+        Buffers buffers = BUFFERS.get();
+        Buffer ascii = buffers.token.reset();
+        if (!ascii.appendToken(token)) {
+            return null;
+        }
+
+        Buffer json = buffers.json.reset();
+        if (!json.appendBase64UrlDecoded(ascii.bytes, 0, firstDot)) {
+            return null;
+        }
+        String keyId = parseKeyId(json);
+        if (keyId == null) {
+            return null;
+        }
+
+        Key key = keyRing.findVerificationKey(keyId.isEmpty() ? null : keyId);
+        if (!(key instanceof SecretKey)) {
+            return null;
+        }
+
+        byte[] signature = buffers.mac(key, ascii.bytes, 0, secondDot);
+        Buffer expected = buffers.signature.reset().appendBase64Url(signature, 0, SIGNATURE_LENGTH);
+        if (!constantTimeEquals(expected.bytes, expected.length, ascii.bytes, secondDot + 1, length - secondDot - 1)) {
+            throw new SignatureException("JWT signature does not match locally computed signature");
+        }
+
+        json.reset();
+        if (!json.appendBase64UrlDecoded(ascii.bytes, firstDot + 1, secondDot - firstDot - 1)) {
+            return null;
+        }
+        return parseClaims(json);
+    }
+
+    private VerifiedToken parseClaims(Buffer json) {
+        Cursor cursor = new Cursor(json);
+        if (!cursor.expect(CLAIM_RM)) {
+            return null;
+        }
+        long roleMask = cursor.readLong();
+        if (roleMask < 0 || !cursor.expect(CLAIM_JTI)) {
+            return null;
+        }
+        String jti = cursor.readString();
+        if (jti == null || !cursor.expect(CLAIM_SUB)) {
+            return null;
+        }
+        String subject = cursor.readString();
+        if (subject == null || !cursor.expect(CLAIM_IAT)) {
+            return null;
+        }
+        long issuedAt = cursor.readLong();
+        if (issuedAt < 0 || !cursor.expect(CLAIM_EXP)) {
+            return null;
+        }
+        long expiration = cursor.readLong();
+        if (expiration < 0 || !cursor.expect(CLAIMS_END) || !cursor.atEnd()) {
+            return null;
+        }
+
+        if (System.currentTimeMillis() > expiration * 1000) {
+            throw new ExpiredJwtException(null, null, "JWT expired at " + Instant.ofEpochSecond(expiration));
+        }
+        if (roleMask > Integer.MAX_VALUE || !RoleMask.isValid((int) roleMask)) {
+            throw new JwtException("Unknown roles in JWT role mask: " + roleMask);
+        }
+
+        return new VerifiedToken(jti, subject,
+                RoleMask.roleNames((int) roleMask), RoleMask.authorities((int) roleMask),
+                Instant.ofEpochSecond(issuedAt), Instant.ofEpochSecond(expiration));
+    }
+
+    /**
+     * @return kid, "" для заголовка без kid, null для заголовка другого вида
+     */
+    private static String parseKeyId(Buffer header) {
+        if (header.equalsAt(0, HEADER_NO_KID) && header.length == HEADER_NO_KID.length) {
+            return "";
+        }
+        int suffixStart = header.length - HEADER_KID_SUFFIX.length;
+        if (suffixStart <= HEADER_KID_PREFIX.length
+                || !header.equalsAt(0, HEADER_KID_PREFIX)
+                || !header.equalsAt(suffixStart, HEADER_KID_SUFFIX)) {
+            return null;
+        }
+        for (int i = HEADER_KID_PREFIX.length; i < suffixStart; i++) {
+            if (!isPlainAscii(header.bytes[i])) {
+                return null;
+            }
+        }
+        return new String(header.bytes, HEADER_KID_PREFIX.length, suffixStart - HEADER_KID_PREFIX.length,
+                StandardCharsets.US_ASCII);
+    }
+
+    private byte[] encodedHeader(String keyId) {
+        String cacheKey = keyId == null ? "" : keyId;
+        byte[] header = encodedHeaders.get(cacheKey);
+        if (header == null) {
+            if (encodedHeaders.size() >= MAX_CACHED_HEADERS) {
+                encodedHeaders.clear();
+            }
+            Buffer json = new Buffer(64);
+            if (keyId == null) {
+                json.append(HEADER_NO_KID);
+            } else {
+                json.append(HEADER_KID_PREFIX).appendAscii(keyId).append(HEADER_KID_SUFFIX);
+            }
+            Buffer encoded = new Buffer(96).appendBase64Url(json.bytes, 0, json.length);
+            header = Arrays.copyOf(encoded.bytes, encoded.length);
+            encodedHeaders.put(cacheKey, header);
+        }
+        return header;
+    }
+
+    /**
+     * Сравнение за время, не зависящее от позиции первого отличающегося байта
+     */
+    private static boolean constantTimeEquals(byte[] a, int aLength, byte[] b, int bOffset, int bLength) {
+        int diff = aLength ^ bLength;
+        int length = Math.min(aLength, bLength);
+        for (int i = 0; i < length; i++) {
+            diff |= a[i] ^ b[bOffset + i];
+        }
+        return diff == 0;
+    }
+
+    /**
+     * Строки, которые Jackson записал бы без экранирования
+     */
+    private static boolean isPlainAscii(String value) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!isPlainAscii(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPlainAscii(int c) {
+        return c >= 0x20 && c < 0x7F && c != '"' && c != '\\';
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Буферы и Mac одного потока
+     */
+    private static final class Buffers {
+
+        private final Buffer json = new Buffer(256);
+
+        private final Buffer token = new Buffer(512);
+
+        private final Buffer signature = new Buffer(64);
+
+        private final byte[] macOutput = new byte[SIGNATURE_LENGTH];
+
+        private Mac mac;
+
+        private Key macKey;
+
+        byte[] mac(Key key, byte[] data, int offset, int length) {
+            try {
+                if (mac == null) {
+                    mac = Mac.getInstance(MAC_ALGORITHM);
+                }
+                if (key != macKey) {
+                    mac.init(key);
+                    macKey = key;
+                }
+                mac.update(data, offset, length);
+                mac.doFinal(macOutput, 0);
+                return macOutput;
+            } catch (NoSuchAlgorithmException | InvalidKeyException | ShortBufferException e) {
+                macKey = null;
+                throw new JwtException("Could not compute JWT signature: " + e.getMessage(), e);
+            }
+        }
+
+    }
+
+    /**
+     * Растущий байтовый буфер с записью Base64URL без промежуточных массивов
+     */
+    private static final class Buffer {
+
+        private byte[] bytes;
+
+        private int length;
+
+        Buffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        Buffer reset() {
+            length = 0;
+            return this;
+        }
+
+        Buffer append(byte[] value) {
+            ensureCapacity(value.length);
+            System.arraycopy(value, 0, bytes, length, value.length);
+            length += value.length;
+            return this;
+        }
+
+        Buffer appendByte(int value) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) value;
+            return this;
+        }
+
+        Buffer appendAscii(String value) {
+            ensureCapacity(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                bytes[length++] = (byte) value.charAt(i);
+            }
+            return this;
+        }
+
+        Buffer appendLong(long value) {
+            if (value == 0) {
+                return appendByte('0');
+            }
+            ensureCapacity(20);
+            if (value < 0) {
+                bytes[length++] = '-';
+            }
+            int start = length;
+            long remaining = value;
+            while (remaining != 0) {
+                bytes[length++] = (byte) ('0' + Math.abs(remaining % 10));
+                remaining /= 10;
+            }
+            for (int i = start, j = length - 1; i < j; i++, j--) {
+                byte tmp = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = tmp;
+            }
+            return this;
+        }
+
+        /**
+         * Копирует ASCII символы токена; false, если встретился не ASCII символ
+         */
+        boolean appendToken(String token) {
+            ensureCapacity(token.length());
+            for (int i = 0; i < token.length(); i++) {
+                char c = token.charAt(i);
+                if (c >= 0x80) {
+                    return false;
+                }
+                bytes[length++] = (byte) c;
+            }
+            return true;
+        }
+
+        Buffer appendBase64Url(byte[] source, int offset, int count) {
+            ensureCapacity((count + 2) / 3 * 4);
+            int end = offset + count;
+            int i = offset;
+            while (end - i >= 3) {
+                int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8 | (source[i + 2] & 0xFF);
+                bytes[length++] = BASE64URL[bits >>> 18];
+                bytes[length++] = BASE64URL[(bits >>> 12) & 0x3F];
+                bytes[length++] = BASE64URL[(bits >>> 6) & 0x3F];
+                bytes[length++] = BASE64URL[bits & 0x3F];
+                i += 3;
+            }
+            if (end - i == 1) {
+                int bits = (source[i] & 0xFF) << 16;
+                bytes[length++] = BASE64URL[bits >>> 18];
+                bytes[length++] = BASE64URL[(bits >>> 12) & 0x3F];
+            } else if (end - i == 2) {
+                int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8;
+                bytes[length++] = BASE64URL[bits >>> 18];
+                bytes[length++] = BASE64URL[(bits >>> 12) & 0x3F];
+                bytes[length++] = BASE64URL[(bits >>> 6) & 0x3F];
+            }
+            return this;
+        }
+
+        /**
+         * Декодирует Base64URL без padding; false, если сегмент некорректен
+         */
+        boolean appendBase64UrlDecoded(byte[] source, int offset, int count) {
+            if (count % 4 == 1) {
+                return false;
+            }
+            ensureCapacity(count / 4 * 3 + 2);
+            int bits = 0;
+            int bitCount = 0;
+            for (int i = offset; i < offset + count; i++) {
+                byte c = source[i];
+                int value = c >= 0 ? BASE64URL_DECODE[c] : -1;
+                if (value < 0) {
+                    return false;
+                }
+                bits = bits << 6 | value;
+                bitCount += 6;
+                if (bitCount >= 8) {
+                    bitCount -= 8;
+                    bytes[length++] = (byte) (bits >>> bitCount);
+                }
+            }
+            return true;
+        }
+
+        boolean equalsAt(int offset, byte[] value) {
+            if (offset < 0 || offset + value.length > length) {
+                return false;
+            }
+            return Arrays.equals(bytes, offset, offset + value.length, value, 0, value.length);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+
+    }
+
+    /**
+     * Последовательное чтение claims фиксированного формата
+     */
+    private static final class Cursor {
+
+        private final Buffer buffer;
+
+        private int position;
+
+        Cursor(Buffer buffer) {
+            this.buffer = buffer;
+        }
+
+        boolean expect(byte[] token) {
+            if (!buffer.equalsAt(position, token)) {
+                return false;
+            }
+            position += token.length;
+            return true;
+        }
+
+        /**
+         * @return неотрицательное число или -1, если в позиции нет числа
+         */
+        long readLong() {
+            int start = position;
+            long value = 0;
+            while (position < buffer.length && position - start < 18) {
+                byte c = buffer.bytes[position];
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                position++;
+            }
+            return position == start ? -1 : value;
+        }
+
+        /**
+         * @return строка до закрывающей кавычки или null, если в ней есть экранированные или не ASCII символы
+         */
+        String readString() {
+            int start = position;
+            while (position < buffer.length && buffer.bytes[position] != '"') {
+                if (!isPlainAscii(buffer.bytes[position])) {
+                    return null;
+                }
+                position++;
+            }
+            if (position >= buffer.length || position == start) {
+                return null;
+            }
+            return new String(buffer.bytes, start, position - start, StandardCharsets.US_ASCII);
+        }
+
+        boolean atEnd() {
+            return position == buffer.length;
+        }
+
+    }
+
+}
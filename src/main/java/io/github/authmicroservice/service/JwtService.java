@@ -1,19 +1,36 @@
 package io.github.authmicroservice.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.authmicroservice.model.dto.VerifiedToken;
+import io.github.authmicroservice.security.key.SigningKey;
+import io.github.authmicroservice.security.key.SigningKeyRing;
+import io.github.authmicroservice.util.RoleMask;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.ProtectedHeader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Date;
 import java.util.List;
-import java.util.function.Function;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -22,60 +39,226 @@ import java.util.stream.Collectors;
 @Service
 public class JwtService {
 
-    @Value("${application.security.jwt.secret-key}")
-    private String secretKey;
+    private static final String ROLES_CLAIM = "roles";
+
+    /**
+     * Роли в виде битовой маски по ordinal Role.RoleType (см. RoleMask)
+     */
+    private static final String ROLE_MASK_CLAIM = "rm";
+
+    private static final ThreadLocal<MessageDigest> TOKEN_DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final MeterRegistry meterRegistry;
+
+    private final SigningKeyRing keyRing;
+
+    private final TokenRevocationService revocationService;
 
     @Value("${application.security.jwt.expiration}")
     private long jwtExpiration;
 
-    private Key signingKey;
+    @Value("${application.security.jwt.compact-roles:true}")
+    private boolean compactRoles;
+
+    @Value("${application.security.jwt.fast-codec:true}")
+    private boolean fastCodecEnabled;
+
+    @Value("${application.security.jwt.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${application.security.jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    /**
+     * Парсер потокобезопасен, поэтому создается один раз при старте
+     */
+    private JwtParser jwtParser;
+
+    /**
+     * Кодек токенов нашего формата для HS256; null – все токены обрабатываются jjwt
+     */
+    private Hs256TokenCodec fastCodec;
+
+    /**
+     * Кэш уже проверенных токенов: ключ - усеченный SHA-256 токена, запись живет до exp токена
+     */
+    private Cache<TokenDigest, VerifiedToken> verifiedTokens;
+
+    public JwtService(MeterRegistry meterRegistry, SigningKeyRing keyRing, TokenRevocationService revocationService) {
+        this.meterRegistry = meterRegistry;
+        this.keyRing = keyRing;
+        this.revocationService = revocationService;
+    }
+
+    @PostConstruct
+    void init() {
+        jwtParser = Jwts.parser()
+                .keyLocator(this::locateVerificationKey)
+                .build();
+
+        if (fastCodecEnabled && Jwts.SIG.HS256.equals(keyRing.getAlgorithm())) {
+            fastCodec = new Hs256TokenCodec(keyRing);
+        }
 
-    private Key getSigningKey() {
-        if (signingKey == null) {
-            byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-            signingKey = Keys.hmacShaKeyFor(keyBytes);
+        if (cacheEnabled) {
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(cacheMaxSize)
+                    .expireAfter(new ExpireAtTokenExpiration())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
         }
-        return signingKey;
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    /**
+     * Проверяет подпись и срок действия токена за один разбор.
+     * Повторные проверки того же токена обслуживаются из кэша до истечения его срока действия;
+     * отзыв проверяется при каждом обращении, в том числе для токенов из кэша
+     * @return проверенные claims токена
+     * @throws io.jsonwebtoken.JwtException если токен некорректен, подделан, истек, выпущен без exp или отозван
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken verifiedToken = verifiedTokens == null
+                ? parse(token)
+                : verifiedTokens.get(TokenDigest.of(token), digest -> parse(token));
+
+        if (verifiedToken.getJti() != null && revocationService.isRevoked(verifiedToken.getJti())) {
+            throw new JwtException("JWT token has been revoked");
+        }
+        return verifiedToken;
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
+    private VerifiedToken parse(String token) {
+        if (fastCodec != null) {
+            VerifiedToken verifiedToken = fastCodec.verify(token);
+            if (verifiedToken != null) {
+                return verifiedToken;
+            }
+        }
+
         Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        if (claims.getExpiration() == null) {
+            throw new JwtException("JWT token has no expiration");
+        }
+        Instant issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+        Instant expiration = claims.getExpiration().toInstant();
+
+        Integer roleMask = claims.get(ROLE_MASK_CLAIM, Integer.class);
+        if (roleMask != null) {
+            if (!RoleMask.isValid(roleMask)) {
+                throw new JwtException("Unknown roles in JWT role mask: " + roleMask);
+            }
+            return new VerifiedToken(claims.getId(), claims.getSubject(),
+                    RoleMask.roleNames(roleMask), RoleMask.authorities(roleMask), issuedAt, expiration);
+        }
+
+        return new VerifiedToken(claims.getId(), claims.getSubject(), extractRoles(claims), issuedAt, expiration);
     }
 
+    public String extractUsername(String token) {
+        return verify(token).getSubject();
+    }
+
+    /**
+     * Генерирует токен. При compact-roles роли записываются маской в claim rm,
+     * если все authorities соответствуют Role.RoleType; иначе – списком в claim roles
+     */
     public String generateToken(UserDetails userDetails) {
-        List<String> roles = userDetails.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toList());
-
-        return Jwts.builder()
-                .setSubject(userDetails.getUsername())
-                .claim("roles", roles)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+        SigningKey signingKey = keyRing.getActiveKey();
+        String jti = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+
+        int roleMask = compactRoles ? RoleMask.encode(userDetails.getAuthorities()) : -1;
+        if (roleMask >= 0 && fastCodec != null) {
+            String token = fastCodec.sign(signingKey, jti, userDetails.getUsername(), roleMask,
+                    now / 1000, (now + jwtExpiration) / 1000);
+            if (token != null) {
+                return token;
+            }
+        }
+
+        JwtBuilder builder = Jwts.builder();
+        if (signingKey.keyId() != null) {
+            builder.header().keyId(signingKey.keyId());
+        }
+
+        if (roleMask >= 0) {
+            builder.claim(ROLE_MASK_CLAIM, roleMask);
+        } else {
+            builder.claim(ROLES_CLAIM, userDetails.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.toList()));
+        }
+
+        return builder
+                .id(jti)
+                .subject(userDetails.getUsername())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + jwtExpiration))
+                .signWith(signingKey.signingKey(), keyRing.getAlgorithm())
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+    private List<String> extractRoles(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles == null) {
+            return List.of();
+        }
+        return roles.stream()
+                .map(Object::toString)
+                .toList();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    private Key locateVerificationKey(Header header) {
+        String keyId = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        Key key = keyRing.findVerificationKey(keyId);
+        if (key == null) {
+            throw new JwtException("Unknown JWT signing key: " + keyId);
+        }
+        return key;
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Первые 128 бит SHA-256 от токена: сам токен в кэше не хранится
+     */
+    private record TokenDigest(long high, long low) {
+
+        static TokenDigest of(String token) {
+            MessageDigest digest = TOKEN_DIGEST.get();
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenDigest(hash.getLong(), hash.getLong());
+        }
+
+    }
+
+    private static final class ExpireAtTokenExpiration implements Expiry<TokenDigest, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, VerifiedToken value, long currentTime) {
+            long millis = value.getExpiration().toEpochMilli() - Instant.now().toEpochMilli();
+            return Math.max(0, millis) * 1_000_000L;
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
     }
 
 }
@@ -6,8 +6,8 @@ import io.github.authmicroservice.model.entity.Role;
 import io.github.authmicroservice.model.entity.User;
 import io.github.authmicroservice.model.entity.UserRole;
 import io.github.authmicroservice.model.enums.Provider;
-import io.github.authmicroservice.repository.RoleRepository;
 import io.github.authmicroservice.repository.UserRepository;
+import io.github.authmicroservice.util.RoleMask;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,12 +22,18 @@ import java.util.Optional;
 public class OauthUserService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final UserPrincipalCache principalCache;
+    private final RoleMembershipService roleMembershipService;
 
     public OauthUserService(UserRepository userRepository,
-                       RoleRepository roleRepository) {
+                       RoleRegistry roleRegistry,
+                       UserPrincipalCache principalCache,
+                       RoleMembershipService roleMembershipService) {
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
+        this.principalCache = principalCache;
+        this.roleMembershipService = roleMembershipService;
     }
 
     @Transactional
@@ -46,6 +52,7 @@ public class OauthUserService {
             user.setFullName(googleUserInfo.getName());
             user.setProfilePictureUrl(googleUserInfo.getPicture());
             user.setGoogleId(googleUserInfo.getId());
+            principalCache.evict(user.getLogin());
             return userRepository.save(user);
 
         } else {
@@ -59,6 +66,7 @@ public class OauthUserService {
                     .email(googleUserInfo.getEmail())
                     .password(null)
                     .active(true)
+                    .roleMask(RoleMask.fromRoleTypes(List.of(Role.RoleType.USER)))
                     .provider(Provider.GOOGLE)
                     .googleId(googleUserInfo.getId())
                     .fullName(googleUserInfo.getName())
@@ -73,7 +81,9 @@ public class OauthUserService {
                     .build();
 
             user.setRoles(new ArrayList<>(List.of(userRoleEntity)));
-            return userRepository.save(user);
+            user = userRepository.save(user);
+            roleMembershipService.refresh(user.getLogin());
+            return user;
 
         }
     }
@@ -100,6 +110,7 @@ public class OauthUserService {
             user.setFullName(gitHubUserInfo.getName());
             user.setProfilePictureUrl(gitHubUserInfo.getAvatarUrl());
             user.setGithubId(gitHubUserInfo.getId());
+            principalCache.evict(user.getLogin());
             return userRepository.save(user);
 
         } else {
@@ -112,6 +123,7 @@ public class OauthUserService {
                     .githubId(gitHubUserInfo.getId())
                     .password(null)
                     .active(true)
+                    .roleMask(RoleMask.fromRoleTypes(List.of(Role.RoleType.USER)))
                     .provider(Provider.GITHUB)
                     .fullName(gitHubUserInfo.getName())
                     .profilePictureUrl(gitHubUserInfo.getAvatarUrl())
@@ -125,13 +137,15 @@ public class OauthUserService {
                     .build();
 
             user.setRoles(new ArrayList<>(List.of(userRoleEntity)));
-            return userRepository.save(user);
+            user = userRepository.save(user);
+            roleMembershipService.refresh(user.getLogin());
+            return user;
 
         }
     }
 
     private Role checkUserRoleExists() {
-        Role userRole = roleRepository.findById(Role.RoleType.USER)
+        Role userRole = roleRegistry.findReference(Role.RoleType.USER)
                 .orElseThrow(() -> new IllegalStateException("USER role not found"));
 
         return userRole;
@@ -0,0 +1,33 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.UserPrincipal;
+
+public interface RefreshTokenService {
+
+    /**
+     * Выдача refresh токена для нового входа (новое семейство токенов)
+     * @return refresh токен в открытом виде
+     */
+    String issue(String login);
+
+    /**
+     * Обмен refresh токена на новый. Предъявленный токен помечается использованным;
+     * повторное предъявление использованного токена отзывает все семейство.
+     * Токен удаленного или отключенного пользователя отклоняется без ротации
+     */
+    Rotation rotate(String refreshToken);
+
+    /**
+     * Удаление истекших refresh токенов
+     * @return количество удаленных токенов
+     */
+    int purgeExpired();
+
+    /**
+     * Результат ротации: владелец токена, прочитанный в транзакции ротации, и новый refresh токен
+     */
+    record Rotation(UserPrincipal user, String refreshToken) {
+
+    }
+
+}
@@ -0,0 +1,137 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.exception.InvalidRefreshTokenException;
+import io.github.authmicroservice.model.dto.UserPrincipal;
+import io.github.authmicroservice.model.entity.RefreshToken;
+import io.github.authmicroservice.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Реализация сервиса refresh токенов.
+ * Токен – 256 случайных бит в Base64URL; в БД хранится только его SHA-256 хеш
+ */
+@Service
+@Slf4j
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final CustomUserDetailsService userDetailsService;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${application.security.jwt.refresh.expiration:P30D}")
+    private Duration refreshExpiration;
+
+    @Value("${application.security.jwt.refresh.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   CustomUserDetailsService userDetailsService) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    @Transactional
+    public String issue(String login) {
+        return createToken(login, UUID.randomUUID());
+    }
+
+    /**
+     * Владелец проверяется в той же транзакции до пометки токена: токен удаленного или отключенного пользователя
+     * не расходуется и не порождает новый
+     */
+    @Override
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String refreshToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+
+        if (current.isUsed() || current.isRevoked()) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId());
+            log.warn("Refresh token reuse detected for user {}, revoked {} tokens of family {}",
+                    current.getUserLogin(), revoked, current.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token has already been used");
+        }
+
+        if (current.isExpired()) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+
+        UserPrincipal user;
+        try {
+            user = userDetailsService.loadUserByUsername(current.getUserLogin());
+        } catch (UsernameNotFoundException e) {
+            throw new InvalidRefreshTokenException("Refresh token owner is not available");
+        }
+
+        current.setUsed(true);
+
+        String next = createToken(current.getUserLogin(), current.getFamilyId());
+
+        log.debug("Refresh token rotated for user {}", current.getUserLogin());
+
+        return new Rotation(user, next);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${application.security.jwt.refresh.purge-interval:PT1H}")
+    public int purgeExpired() {
+        Instant now = Instant.now();
+        int total = 0;
+        int deleted;
+
+        do {
+            deleted = refreshTokenRepository.deleteExpiredBatch(now, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+
+        if (total > 0) {
+            log.info("Purged {} expired refresh tokens", total);
+        }
+        return total;
+    }
+
+    private String createToken(String login, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .userLogin(login)
+                .familyId(familyId)
+                .expiresAt(Instant.now().plus(refreshExpiration))
+                .build());
+
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.repository.RoleMaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Периодическая сверка users.role_mask с user_roles. Маска обновляется в тех же транзакциях, что и роли,
+ * поэтому расхождение означает запись в обход сервиса (ручной SQL, старая версия приложения);
+ * маска исправляется по user_roles, а пользователь удаляется из кэша principal на всех экземплярах.
+ * Исправления считаются метрикой users.role-mask.repaired
+ */
+@Component
+@Slf4j
+public class RoleMaskConsistencyChecker {
+
+    private final RoleMaskRepository roleMaskRepository;
+
+    private final UserPrincipalCache principalCache;
+
+    private final Counter repairs;
+
+    private final int batchSize;
+
+    public RoleMaskConsistencyChecker(RoleMaskRepository roleMaskRepository,
+                                      UserPrincipalCache principalCache,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${application.security.role-mask.check-batch-size:1000}") int batchSize) {
+        this.roleMaskRepository = roleMaskRepository;
+        this.principalCache = principalCache;
+        this.repairs = Counter.builder("users.role-mask.repaired")
+                .description("Users whose role_mask did not match user_roles and was rewritten")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Проходит всех пользователей страницами по логину
+     * @return число исправленных пользователей
+     */
+    @Scheduled(fixedDelayString = "${application.security.role-mask.check-interval:PT6H}",
+            initialDelayString = "${application.security.role-mask.check-interval:PT6H}")
+    public int check() {
+        int checked = 0;
+        int repaired = 0;
+        String after = null;
+        List<RoleMaskRepository.MaskRow> page;
+        do {
+            page = roleMaskRepository.findPage(after, batchSize);
+            for (RoleMaskRepository.MaskRow row : page) {
+                if (!row.consistent() && roleMaskRepository.repair(row.login(), row.storedMask(), row.expectedMask())) {
+                    log.warn("Role mask of user {} was {} but user_roles give {}, repaired",
+                            row.login(), row.storedMask(), row.expectedMask());
+                    principalCache.evict(row.login());
+                    repairs.increment();
+                    repaired++;
+                }
+            }
+            checked += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).login();
+            }
+        } while (page.size() == batchSize);
+
+        log.info("Role mask check finished: {} users checked, {} repaired", checked, repaired);
+        return repaired;
+    }
+
+}
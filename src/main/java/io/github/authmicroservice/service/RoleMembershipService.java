@@ -0,0 +1,37 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.RoleMembersResponse;
+import io.github.authmicroservice.model.entity.Role;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Ответы на вопросы "у кого есть роль" и "сколько пользователей с ролью" из индекса в памяти
+ */
+public interface RoleMembershipService {
+
+    /**
+     * Страница пользователей с ролью по курсору
+     * @param after логин, после которого начинается страница; null – с начала
+     * @param size  размер страницы
+     */
+    RoleMembersResponse getMembers(Role.RoleType role, String after, int size);
+
+    /**
+     * Число пользователей по каждой роли
+     */
+    Map<Role.RoleType, Integer> countMembers();
+
+    /**
+     * Перечитывает роли пользователя в индекс на всех экземплярах.
+     * Вызывается после изменения ролей; внутри транзакции – после ее фиксации
+     */
+    void refresh(String login);
+
+    /**
+     * То же для нескольких пользователей: роли перечитываются одним запросом
+     */
+    void refresh(Collection<String> logins);
+
+}
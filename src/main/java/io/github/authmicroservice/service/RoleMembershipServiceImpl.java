@@ -0,0 +1,315 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.RoleMembersResponse;
+import io.github.authmicroservice.model.dto.UserRoleAssignment;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.repository.UserRoleRepository;
+import io.github.authmicroservice.util.RoleMembershipBitmap;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Реализация запросов роль –> пользователи поверх RoleMembershipBitmap.
+ * Индекс строится целиком по user_roles при старте и по расписанию, а между построениями
+ * обновляется точечно: после фиксации изменения ролей перечитываются роли затронутых пользователей,
+ * остальные экземпляры получают их через CacheInvalidationBus: одно сообщение на пачку логинов,
+ * которую получатель перечитывает одним запросом
+ */
+@Service
+@Slf4j
+public class RoleMembershipServiceImpl implements RoleMembershipService, CacheInvalidationListener {
+
+    static final String REGION = "role-membership";
+
+    /**
+     * Предел длины пачки логинов в одном сообщении: payload pg_notify должен быть короче 8000 байт
+     */
+    static final int MAX_MESSAGE_LENGTH = 7000;
+
+    private static final String LOGIN_SEPARATOR = ",";
+
+    private final UserRoleRepository userRoleRepository;
+
+    private final CacheInvalidationBus invalidationBus;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Object rebuildLock = new Object();
+
+    private volatile RoleMembershipBitmap bitmap = RoleMembershipBitmap.builder().build();
+
+    private boolean rebuilding;
+
+    private final Set<String> changedDuringRebuild = new LinkedHashSet<>();
+
+    /**
+     * Номер чтения ролей, берется под монитором до запроса к базе
+     */
+    private long sequence;
+
+    /**
+     * Номер последнего примененного чтения по логину: более старое чтение, примененное позже, пропускается
+     */
+    private final Map<String, Long> appliedStamps = new HashMap<>();
+
+    /**
+     * Номер начала последнего опубликованного построения: чтения до него старше данных индекса
+     */
+    private long stampFloor;
+
+    public RoleMembershipServiceImpl(UserRoleRepository userRoleRepository,
+                                     CacheInvalidationBus invalidationBus,
+                                     PlatformTransactionManager transactionManager) {
+        this.userRoleRepository = userRoleRepository;
+        this.invalidationBus = invalidationBus;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    @Override
+    public RoleMembersResponse getMembers(Role.RoleType role, String after, int size) {
+        RoleMembershipBitmap current = bitmap;
+        List<String> logins = current.members(role, after, size + 1);
+        String nextCursor = null;
+        if (logins.size() > size) {
+            logins = logins.subList(0, size);
+            nextCursor = logins.get(size - 1);
+        }
+        return RoleMembersResponse.builder()
+                .role(role)
+                .total(current.count(role))
+                .logins(logins)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    public Map<Role.RoleType, Integer> countMembers() {
+        RoleMembershipBitmap current = bitmap;
+        Map<Role.RoleType, Integer> counts = new EnumMap<>(Role.RoleType.class);
+        for (Role.RoleType role : Role.RoleType.values()) {
+            counts.put(role, current.count(role));
+        }
+        return counts;
+    }
+
+    @Override
+    public void refresh(String login) {
+        refresh(List.of(login));
+    }
+
+    /**
+     * Внутри транзакции роли перечитываются после ее фиксации, чтобы не прочитать незафиксированное состояние;
+     * при откате индекс не меняется. Ошибка перечитывания после фиксации не доходит до вызывающего:
+     * изменения уже сохранены, а индекс исправит плановое построение
+     */
+    @Override
+    public void refresh(Collection<String> logins) {
+        if (logins.isEmpty()) {
+            return;
+        }
+        encode(logins).forEach(message -> invalidationBus.publish(REGION, message));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<String> copy = List.copyOf(logins);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    try {
+                        reload(copy);
+                    } catch (RuntimeException e) {
+                        log.warn("Role membership reload after commit failed for {} users, "
+                                + "index will be fixed by the next rebuild", copy.size(), e);
+                    }
+                }
+            });
+        } else {
+            reload(logins);
+        }
+    }
+
+    @Override
+    public String region() {
+        return REGION;
+    }
+
+    /**
+     * Пачка логинов с другого экземпляра; свои сообщения не приходят, так как изменения уже применены в refresh
+     */
+    @Override
+    public void invalidate(String message) {
+        reload(decode(message));
+    }
+
+    @Override
+    public void invalidateAll() {
+        rebuild();
+    }
+
+    @Override
+    public boolean acceptsOwnMessages() {
+        return false;
+    }
+
+    /**
+     * Полное построение индекса; исправляет порядок пользователей, добавленных после прошлого построения.
+     * Таблица читается без блокировки, а логины, обновленные за это время, перечитываются в новый индекс
+     * перед его публикацией, поэтому построение не теряет параллельные изменения
+     */
+    @Scheduled(fixedDelayString = "${application.user-roles.membership.rebuild-interval:PT1H}",
+            initialDelayString = "${application.user-roles.membership.rebuild-interval:PT1H}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long rebuildStamp;
+            synchronized (this) {
+                rebuilding = true;
+                changedDuringRebuild.clear();
+                rebuildStamp = ++sequence;
+            }
+            try {
+                RoleMembershipBitmap next = readOnlyTransaction.execute(status -> {
+                    RoleMembershipBitmap.Builder builder = RoleMembershipBitmap.builder();
+                    try (Stream<UserRoleAssignment> assignments = userRoleRepository.streamAllAssignments()) {
+                        assignments.forEach(assignment -> builder.add(assignment.login(), assignment.role()));
+                    }
+                    return builder.build();
+                });
+                publish(next, rebuildStamp);
+                log.info("Role membership index rebuilt: {} users", next.size());
+            } finally {
+                synchronized (this) {
+                    rebuilding = false;
+                    changedDuringRebuild.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Догоняет новый индекс изменениями, зафиксированными во время построения, и публикует его.
+     * Роли читаются вне монитора; логины, изменившиеся во время чтения, перечитываются следующим проходом.
+     * Чтения, начатые до построения, после публикации не применяются: таблица прочитана позже них
+     */
+    private void publish(RoleMembershipBitmap next, long rebuildStamp) {
+        while (true) {
+            List<String> pending;
+            long stamp;
+            synchronized (this) {
+                if (changedDuringRebuild.isEmpty()) {
+                    bitmap = next;
+                    rebuilding = false;
+                    stampFloor = rebuildStamp;
+                    appliedStamps.values().removeIf(applied -> applied < rebuildStamp);
+                    return;
+                }
+                pending = List.copyOf(changedDuringRebuild);
+                changedDuringRebuild.clear();
+                stamp = ++sequence;
+            }
+            Map<String, Set<Role.RoleType>> roles = load(pending);
+            synchronized (this) {
+                apply(next, roles, stamp);
+            }
+        }
+    }
+
+    /**
+     * Логины регистрируются до чтения, поэтому идущее построение перечитает их после этой фиксации.
+     * Запрос к базе выполняется вне монитора, под ним только применяется результат; номер чтения берется
+     * до запроса, поэтому параллельные перечитывания одного логина не перезапишут новые роли старыми
+     */
+    private void reload(Collection<String> logins) {
+        long stamp;
+        synchronized (this) {
+            if (rebuilding) {
+                changedDuringRebuild.addAll(logins);
+            }
+            stamp = ++sequence;
+        }
+        Map<String, Set<Role.RoleType>> roles = load(logins);
+        synchronized (this) {
+            apply(bitmap, roles, stamp);
+        }
+    }
+
+    private Map<String, Set<Role.RoleType>> load(Collection<String> logins) {
+        Map<String, Set<Role.RoleType>> roles = new HashMap<>();
+        logins.forEach(login -> roles.put(login, EnumSet.noneOf(Role.RoleType.class)));
+        for (UserRoleAssignment assignment : userRoleRepository.findAssignmentsByUserLogins(new ArrayList<>(roles.keySet()))) {
+            roles.get(assignment.login()).add(assignment.role());
+        }
+        return roles;
+    }
+
+    /**
+     * Логины в URL-кодировке через запятую, пачками не длиннее MAX_MESSAGE_LENGTH
+     */
+    static List<String> encode(Collection<String> logins) {
+        List<String> messages = new ArrayList<>();
+        StringBuilder message = new StringBuilder();
+        for (String login : logins) {
+            String encoded = URLEncoder.encode(login, StandardCharsets.UTF_8);
+            if (!message.isEmpty() && message.length() + LOGIN_SEPARATOR.length() + encoded.length() > MAX_MESSAGE_LENGTH) {
+                messages.add(message.toString());
+                message.setLength(0);
+            }
+            if (!message.isEmpty()) {
+                message.append(LOGIN_SEPARATOR);
+            }
+            message.append(encoded);
+        }
+        if (!message.isEmpty()) {
+            messages.add(message.toString());
+        }
+        return messages;
+    }
+
+    static List<String> decode(String message) {
+        return Arrays.stream(message.split(LOGIN_SEPARATOR))
+                .map(login -> URLDecoder.decode(login, StandardCharsets.UTF_8))
+                .toList();
+    }
+
+    /**
+     * Вызывается под монитором; логины, для которых уже применено более новое чтение, пропускаются
+     */
+    private void apply(RoleMembershipBitmap target, Map<String, Set<Role.RoleType>> roles, long stamp) {
+        if (stamp < stampFloor) {
+            return;
+        }
+        roles.forEach((login, loginRoles) -> {
+            Long applied = appliedStamps.get(login);
+            if (applied != null && applied > stamp) {
+                return;
+            }
+            appliedStamps.put(login, stamp);
+            target.update(login, loginRoles);
+        });
+    }
+
+}
@@ -0,0 +1,70 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Справочник ролей, загружаемый из таблицы roles один раз при старте.
+ * Таблица – статические данные (changeset 004), поэтому проверка существования роли не обращается к БД,
+ * а для связей выдается ссылка getReferenceById без SELECT.
+ * После изменения таблицы в обход миграций нужно вызвать reload()
+ */
+@Component
+@Slf4j
+public class RoleRegistry {
+
+    private final RoleRepository roleRepository;
+
+    private volatile Map<Role.RoleType, Role> roles = Map.of();
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @PostConstruct
+    public void reload() {
+        EnumMap<Role.RoleType, Role> loaded = new EnumMap<>(Role.RoleType.class);
+        for (Role role : roleRepository.findAll()) {
+            loaded.put(role.getId(), Role.builder()
+                    .id(role.getId())
+                    .name(role.getName())
+                    .build());
+        }
+        roles = Collections.unmodifiableMap(loaded);
+
+        EnumSet<Role.RoleType> missing = EnumSet.allOf(Role.RoleType.class);
+        missing.removeAll(loaded.keySet());
+        if (!missing.isEmpty()) {
+            log.warn("Roles missing in the roles table: {}", missing);
+        }
+        log.debug("Role registry loaded with {} roles", loaded.size());
+    }
+
+    /**
+     * Ссылка на роль в текущем persistence context для сохранения связей; роль не загружается из БД
+     * @return пустой Optional, если роли нет в таблице
+     */
+    public Optional<Role> findReference(Role.RoleType roleType) {
+        if (!roles.containsKey(roleType)) {
+            return Optional.empty();
+        }
+        return Optional.of(roleRepository.getReferenceById(roleType));
+    }
+
+    /**
+     * Неизменяемый снимок таблицы ролей (не связан с persistence context)
+     */
+    public Map<Role.RoleType, Role> getRoles() {
+        return roles;
+    }
+
+}
@@ -0,0 +1,21 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.TokenIntrospectionResponse;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface TokenIntrospectionService {
+
+    /**
+     * Проверка одного токена
+     */
+    TokenIntrospectionResponse introspect(String token);
+
+    /**
+     * Пакетная проверка токенов; результаты передаются в consumer порциями в порядке токенов,
+     * что позволяет отдавать ответ потоком, не дожидаясь обработки всего пакета
+     */
+    void introspect(List<String> tokens, Consumer<TokenIntrospectionResponse> consumer);
+
+}
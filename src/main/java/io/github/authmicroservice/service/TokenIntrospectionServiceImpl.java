@@ -0,0 +1,141 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.TokenIntrospectionResponse;
+import io.github.authmicroservice.model.dto.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Реализация пакетной проверки JWT токенов поверх JwtService.verify.
+ * Пакет обрабатывается порциями; порции больше parallel-threshold делятся на части по числу потоков
+ * и проверяются в собственном пуле, а не в общем ForkJoinPool. Очередь пула ограничена: когда она заполнена,
+ * часть проверяется в потоке запроса, поэтому параллельные пакеты не копят задачи без предела
+ */
+@Service
+@Slf4j
+public class TokenIntrospectionServiceImpl implements TokenIntrospectionService {
+
+    private static final String METRIC_PREFIX = "token.introspection";
+
+    private final JwtService jwtService;
+
+    private final int chunkSize;
+
+    private final int parallelThreshold;
+
+    private final ThreadPoolExecutor executor;
+
+    public TokenIntrospectionServiceImpl(JwtService jwtService,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${application.security.jwt.introspection.chunk-size:512}") int chunkSize,
+                                         @Value("${application.security.jwt.introspection.parallel-threshold:64}")
+                                         int parallelThreshold,
+                                         @Value("${application.security.jwt.introspection.threads:0}") int threads,
+                                         @Value("${application.security.jwt.introspection.queue-capacity:64}")
+                                         int queueCapacity) {
+        this.jwtService = jwtService;
+        this.chunkSize = chunkSize;
+        this.parallelThreshold = parallelThreshold;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "token-introspection-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> {
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("Token introspection pool is shut down");
+                    }
+                    task.run();
+                });
+        new ExecutorServiceMetrics(executor, METRIC_PREFIX, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @Override
+    public TokenIntrospectionResponse introspect(String token) {
+        try {
+            VerifiedToken verifiedToken = jwtService.verify(token);
+            return TokenIntrospectionResponse.builder()
+                    .active(true)
+                    .sub(verifiedToken.getSubject())
+                    .roles(verifiedToken.getRoles())
+                    .exp(verifiedToken.getExpiration().getEpochSecond())
+                    .build();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Inactive token in introspection: {}", e.getMessage());
+            return TokenIntrospectionResponse.inactive();
+        }
+    }
+
+    @Override
+    public void introspect(List<String> tokens, Consumer<TokenIntrospectionResponse> consumer) {
+        for (int from = 0; from < tokens.size(); from += chunkSize) {
+            List<String> chunk = tokens.subList(from, Math.min(from + chunkSize, tokens.size()));
+
+            List<TokenIntrospectionResponse> results = chunk.size() < parallelThreshold
+                    ? chunk.stream().map(this::introspect).toList()
+                    : introspectInParallel(chunk);
+
+            results.forEach(consumer);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @return результаты в порядке токенов порции
+     */
+    private List<TokenIntrospectionResponse> introspectInParallel(List<String> chunk) {
+        int parts = Math.min(executor.getMaximumPoolSize(), chunk.size());
+        int partSize = (chunk.size() + parts - 1) / parts;
+
+        List<Future<List<TokenIntrospectionResponse>>> futures = new ArrayList<>(parts);
+        for (int from = 0; from < chunk.size(); from += partSize) {
+            List<String> part = chunk.subList(from, Math.min(from + partSize, chunk.size()));
+            futures.add(executor.submit(() -> part.stream().map(this::introspect).toList()));
+        }
+
+        List<TokenIntrospectionResponse> results = new ArrayList<>(chunk.size());
+        try {
+            for (Future<List<TokenIntrospectionResponse>> future : futures) {
+                results.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for token introspection", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Token introspection failed", e.getCause());
+        }
+        return results;
+    }
+
+}
@@ -0,0 +1,17 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.VerifiedToken;
+
+public interface TokenRevocationService {
+
+    /**
+     * Отзыв токена до истечения его срока действия
+     */
+    void revoke(VerifiedToken token);
+
+    /**
+     * Проверка, отозван ли токен с данным jti
+     */
+    boolean isRevoked(String jti);
+
+}
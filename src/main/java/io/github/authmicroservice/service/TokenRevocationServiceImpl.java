@@ -0,0 +1,142 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.exception.TokenNotRevocableException;
+import io.github.authmicroservice.model.dto.VerifiedToken;
+import io.github.authmicroservice.repository.RevokedTokenRepository;
+import io.github.authmicroservice.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Реализация отзыва JWT токенов.
+ * Перед таблицей revoked_tokens стоит фильтр Блума: для неотозванных токенов проверка
+ * почти всегда завершается в памяти, в БД идут только срабатывания фильтра.
+ * Отзывы на других экземплярах приходят через CacheInvalidationBus и сразу попадают в фильтр
+ */
+@Service
+@Slf4j
+public class TokenRevocationServiceImpl implements TokenRevocationService, CacheInvalidationListener {
+
+    static final String REGION = "revoked-token";
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final CacheInvalidationBus invalidationBus;
+
+    private final Counter falsePositives;
+
+    @Value("${application.security.jwt.revocation.expected-tokens:100000}")
+    private int expectedTokens;
+
+    @Value("${application.security.jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${application.security.jwt.revocation.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    private volatile BloomFilter filter;
+
+    public TokenRevocationServiceImpl(RevokedTokenRepository revokedTokenRepository,
+                                      CacheInvalidationBus invalidationBus,
+                                      MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.invalidationBus = invalidationBus;
+        this.falsePositives = Counter.builder("jwt.revocation.false-positives")
+                .description("Bloom filter hits for tokens that are not revoked")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    /**
+     * Запись в фильтр делается после фиксации строки и под той же блокировкой, что и перестроение:
+     * иначе перестроение, прочитавшее таблицу до фиксации, могло бы потерять отзыв.
+     * Остальные экземпляры получают отзыв через шину, не дожидаясь перестроения.
+     * Повторный отзыв уже отозванного токена не считается ошибкой
+     */
+    @Override
+    public void revoke(VerifiedToken token) {
+        if (token.getJti() == null) {
+            throw new TokenNotRevocableException("Token has no jti claim and cannot be revoked");
+        }
+
+        revokedTokenRepository.insertIfAbsent(token.getJti(), token.getExpiration(), Instant.now());
+
+        invalidate(token.getJti());
+        invalidationBus.publish(REGION, token.getJti());
+
+        log.debug("Token {} of user {} revoked", token.getJti(), token.getSubject());
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        if (!filter.mightContain(jti)) {
+            return false;
+        }
+        boolean revoked = revokedTokenRepository.existsById(jti);
+        if (!revoked) {
+            falsePositives.increment();
+        }
+        return revoked;
+    }
+
+    @Override
+    public String region() {
+        return REGION;
+    }
+
+    /**
+     * Добавляет отозванный токен в фильтр; окончательное решение все равно принимается по таблице
+     */
+    @Override
+    public synchronized void invalidate(String jti) {
+        filter.put(jti);
+    }
+
+    /**
+     * Отзывы с других экземпляров могли быть пропущены: фильтр перестраивается по таблице
+     */
+    @Override
+    public void invalidateAll() {
+        rebuild();
+    }
+
+    /**
+     * Перестроение фильтра по таблице: удаляет из него истекшие токены
+     * и подхватывает отзывы, сделанные другими экземплярами сервиса
+     */
+    @Scheduled(fixedDelayString = "${application.security.jwt.revocation.rebuild-interval:PT5M}",
+            initialDelayString = "${application.security.jwt.revocation.rebuild-interval:PT5M}")
+    public synchronized void rebuild() {
+        Instant now = Instant.now();
+        int deleted;
+        do {
+            deleted = revokedTokenRepository.deleteExpiredBatch(now, purgeBatchSize);
+        } while (deleted == purgeBatchSize);
+
+        BloomFilter next = BloomFilter.create(expectedTokens, falsePositiveRate);
+
+        List<String> jtis = revokedTokenRepository.findActiveJtis(now);
+        jtis.forEach(next::put);
+
+        filter = next;
+
+        if (jtis.size() > expectedTokens) {
+            log.warn("{} revoked tokens exceed the expected {}, Bloom filter false positive rate will grow",
+                    jtis.size(), expectedTokens);
+        }
+        log.debug("Revocation filter rebuilt with {} tokens", jtis.size());
+    }
+
+}
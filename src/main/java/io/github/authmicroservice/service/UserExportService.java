@@ -0,0 +1,19 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.UserSummary;
+
+import java.util.function.Consumer;
+
+/**
+ * Выгрузка пользователей с ролями
+ */
+public interface UserExportService {
+
+    /**
+     * Передает пользователей в порядке логина по одному, не загружая таблицу целиком
+     * @param sink получатель записей
+     * @return количество выгруженных пользователей
+     */
+    long export(Consumer<UserSummary> sink);
+
+}
@@ -0,0 +1,63 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.UserSummary;
+import io.github.authmicroservice.model.dto.UserExportRow;
+import io.github.authmicroservice.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Реализация выгрузки пользователей.
+ * Строки читаются серверным курсором PostgreSQL (транзакция без autocommit и fetch size у запроса),
+ * поэтому в памяти одновременно находится одна порция. Запрос возвращает DTO проекцию, а не сущности:
+ * в persistence context ничего не попадает и очищать его по ходу выгрузки не нужно.
+ * Строки одного пользователя идут подряд (ORDER BY login) и собираются в одну запись
+ */
+@Service
+@Slf4j
+public class UserExportServiceImpl implements UserExportService {
+
+    private final UserRepository userRepository;
+
+    public UserExportServiceImpl(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long export(Consumer<UserSummary> sink) {
+        long exported = 0;
+        try (Stream<UserExportRow> rows = userRepository.streamExportRows()) {
+            UserSummary current = null;
+            Iterator<UserExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                UserExportRow row = iterator.next();
+                if (current == null || !current.getLogin().equals(row.login())) {
+                    if (current != null) {
+                        sink.accept(current);
+                        exported++;
+                    }
+                    current = new UserSummary(row.login(), row.email(), row.provider(), row.active(), row.fullName(),
+                            new ArrayList<>(1));
+                }
+                if (row.role() != null) {
+                    current.getRoles().add(row.role());
+                }
+            }
+            if (current != null) {
+                sink.accept(current);
+                exported++;
+            }
+        }
+
+        log.info("Exported {} users", exported);
+        return exported;
+    }
+
+}
@@ -0,0 +1,22 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.UserImportResponse;
+import io.github.authmicroservice.model.enums.UserImportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Импорт локальных пользователей из внешнего хранилища
+ */
+public interface UserImportService {
+
+    /**
+     * Создает пользователей из потока строк. Ошибки отдельных строк попадают в ответ
+     * и не прерывают импорт остальных
+     * @param body   поток NDJSON или CSV
+     * @param format формат потока
+     */
+    UserImportResponse importUsers(InputStream body, UserImportFormat format) throws IOException;
+
+}
@@ -0,0 +1,496 @@
+package io.github.authmicroservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.authmicroservice.model.dto.UserImportResponse;
+import io.github.authmicroservice.model.dto.UserImportRow;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.entity.User;
+import io.github.authmicroservice.model.entity.UserRole;
+import io.github.authmicroservice.model.enums.Provider;
+import io.github.authmicroservice.model.enums.UserImportFormat;
+import io.github.authmicroservice.repository.UserRepository;
+import io.github.authmicroservice.security.encoder.CustomPasswordEncoder;
+import io.github.authmicroservice.util.BulkRowErrors;
+import io.github.authmicroservice.util.RoleMask;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация импорта пользователей.
+ * Поток читается построчно порциями по chunk-size строк, поэтому память не зависит от размера файла:
+ * одновременно в работе не больше двух порций. Пока пароли следующей порции хешируются в отдельном пуле
+ * (не в пуле входа, чтобы импорт не вытеснял пользователей), предыдущая записывается в БД одной транзакцией
+ * через JDBC batch. Если порция не записалась целиком, ее строки повторяются по одной.
+ * Очередь пула хеширования общая для параллельных импортов и ограничена: когда она заполнена,
+ * поток импорта хеширует пароль сам и не читает дальше, пока не разгрузит пул.
+ * В ответ попадают max-reported-errors первых ошибок, остальные только считаются
+ */
+@Service
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final String METRIC_PREFIX = "user.import.hashing";
+
+    private static final List<Role.RoleType> DEFAULT_ROLES = List.of(Role.RoleType.USER);
+
+    private final UserRepository userRepository;
+
+    private final RoleRegistry roleRegistry;
+
+    private final CustomPasswordEncoder passwordEncoder;
+
+    private final RoleMembershipService roleMembershipService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManager entityManager;
+
+    private final Validator validator;
+
+    private final ObjectReader rowReader;
+
+    private final ThreadPoolExecutor hashingPool;
+
+    private final int chunkSize;
+
+    private final int maxReportedErrors;
+
+    public UserImportServiceImpl(UserRepository userRepository,
+                                 RoleRegistry roleRegistry,
+                                 CustomPasswordEncoder passwordEncoder,
+                                 RoleMembershipService roleMembershipService,
+                                 TransactionTemplate transactionTemplate,
+                                 EntityManager entityManager,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${application.user-import.chunk-size:500}") int chunkSize,
+                                 @Value("${application.user-import.hashing-threads:0}") int hashingThreads,
+                                 @Value("${application.user-import.hashing-queue-capacity:1000}") int hashingQueueCapacity,
+                                 @Value("${application.user-import.max-reported-errors:100}") int maxReportedErrors) {
+        this.userRepository = userRepository;
+        this.roleRegistry = roleRegistry;
+        this.passwordEncoder = passwordEncoder;
+        this.roleMembershipService = roleMembershipService;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.rowReader = objectMapper.readerFor(UserImportRow.class);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+
+        int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.hashingPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hashingQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("User import hashing pool is shut down");
+                    }
+                    task.run();
+                });
+        new ExecutorServiceMetrics(hashingPool, METRIC_PREFIX, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @Override
+    public UserImportResponse importUsers(InputStream body, UserImportFormat format) throws IOException {
+        Totals totals = new Totals(maxReportedErrors);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        CsvHeader csvHeader = null;
+
+        Chunk pending = null;
+        List<Candidate> rows = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        try {
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == UserImportFormat.CSV && csvHeader == null) {
+                    try {
+                        csvHeader = CsvHeader.parse(line);
+                    } catch (IllegalArgumentException e) {
+                        totals.errors.add(lineNumber, null, "Invalid CSV header: " + e.getMessage());
+                        break;
+                    }
+                    continue;
+                }
+                totals.processed++;
+
+                Candidate candidate = parse(line, lineNumber, csvHeader, totals);
+                if (candidate != null) {
+                    rows.add(candidate);
+                }
+                if (rows.size() == chunkSize) {
+                    pending = advance(pending, rows, totals);
+                    rows = new ArrayList<>(chunkSize);
+                }
+            }
+            pending = advance(pending, rows, totals);
+            if (pending != null) {
+                write(pending, totals);
+                pending = null;
+            }
+        } finally {
+            if (pending != null) {
+                pending.cancel();
+            }
+        }
+
+        log.info("User import ({}): {} rows, {} imported, {} failed", format, totals.processed, totals.imported, totals.errors.count());
+
+        return UserImportResponse.builder()
+                .processed(totals.processed)
+                .imported(totals.imported)
+                .failed(totals.errors.count())
+                .errors(totals.errors.toList())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    private Candidate parse(String line, long lineNumber, CsvHeader csvHeader, Totals totals) {
+        UserImportRow row;
+        try {
+            row = csvHeader != null ? csvHeader.read(line) : rowReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            totals.errors.add(lineNumber, null, "Malformed row: " + e.getOriginalMessage());
+            return null;
+        } catch (IllegalArgumentException e) {
+            totals.errors.add(lineNumber, null, "Malformed row: " + e.getMessage());
+            return null;
+        }
+
+        Set<ConstraintViolation<UserImportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            String error = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            totals.errors.add(lineNumber, row.getLogin(), error);
+            return null;
+        }
+
+        if ((row.getPassword() == null) == (row.getPasswordHash() == null)) {
+            totals.errors.add(lineNumber, row.getLogin(), "Exactly one of password and passwordHash is required");
+            return null;
+        }
+        if (row.getPasswordHash() != null && !passwordEncoder.isSupported(row.getPasswordHash())) {
+            totals.errors.add(lineNumber, row.getLogin(), "Unsupported password hash format");
+            return null;
+        }
+
+        EnumSet<Role.RoleType> roles = EnumSet.noneOf(Role.RoleType.class);
+        for (Role.RoleType roleType : row.getRoles() == null || row.getRoles().isEmpty() ? DEFAULT_ROLES : row.getRoles()) {
+            if (roleType == null || !roleRegistry.getRoles().containsKey(roleType)) {
+                totals.errors.add(lineNumber, row.getLogin(), "Role not found: " + roleType);
+                return null;
+            }
+            roles.add(roleType);
+        }
+        return new Candidate(lineNumber, row.getLogin(), row.getEmail(), row.getPassword(), row.getPasswordHash(), roles);
+    }
+
+    /**
+     * Запускает хеширование новой порции и после этого записывает предыдущую
+     * @return порция, ожидающая записи
+     */
+    private Chunk advance(Chunk pending, List<Candidate> rows, Totals totals) {
+        Chunk next = rows.isEmpty() ? null : startHashing(rows, totals);
+        if (pending != null) {
+            try {
+                write(pending, totals);
+            } catch (RuntimeException e) {
+                if (next != null) {
+                    next.cancel();
+                }
+                throw e;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Отбрасывает строки с уже занятыми логином или email до хеширования, чтобы не тратить на них время.
+     * Повторы между порциями, еще не записанными в БД, отсекаются ограничениями таблицы при записи
+     */
+    private Chunk startHashing(List<Candidate> rows, Totals totals) {
+        Set<String> existingLogins = new HashSet<>(userRepository.findExistingLogins(
+                rows.stream().map(Candidate::getLogin).toList()));
+        Set<String> existingEmails = new HashSet<>(userRepository.findExistingEmails(
+                rows.stream().map(Candidate::getEmail).toList(), Provider.LOCAL));
+
+        Set<String> chunkLogins = new HashSet<>();
+        Set<String> chunkEmails = new HashSet<>();
+        List<Candidate> accepted = new ArrayList<>(rows.size());
+        for (Candidate candidate : rows) {
+            if (existingLogins.contains(candidate.getLogin()) || !chunkLogins.add(candidate.getLogin())) {
+                totals.errors.add(candidate.getLine(), candidate.getLogin(),
+                        "User with login " + candidate.getLogin() + " already exists");
+                continue;
+            }
+            if (existingEmails.contains(candidate.getEmail()) || !chunkEmails.add(candidate.getEmail())) {
+                totals.errors.add(candidate.getLine(), candidate.getLogin(),
+                        "User with email " + candidate.getEmail() + " already exists");
+                continue;
+            }
+
+            if (candidate.getPasswordHash() != null) {
+                candidate.setHash(CompletableFuture.completedFuture(candidate.getPasswordHash()));
+            } else {
+                String password = candidate.getPassword();
+                candidate.setHash(hashingPool.submit(
+                        () -> passwordEncoder.encode(password, candidate.getLogin(), candidate.getEmail())));
+                candidate.setPassword(null);
+            }
+            accepted.add(candidate);
+        }
+        return new Chunk(accepted);
+    }
+
+    private void write(Chunk chunk, Totals totals) {
+        List<Candidate> ready = new ArrayList<>(chunk.rows().size());
+        for (Candidate candidate : chunk.rows()) {
+            try {
+                candidate.setPasswordHash(candidate.getHash().get());
+                ready.add(candidate);
+            } catch (InterruptedException e) {
+                chunk.cancel();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+            } catch (ExecutionException e) {
+                totals.errors.add(candidate.getLine(), candidate.getLogin(),
+                        "Password hashing failed: " + e.getCause().getMessage());
+            }
+        }
+        if (ready.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(ready));
+            totals.imported += ready.size();
+        } catch (RuntimeException e) {
+            log.warn("User import chunk starting at line {} failed, importing its rows one by one: {}",
+                    ready.get(0).getLine(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            for (Candidate candidate : ready) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(candidate)));
+                    totals.imported++;
+                } catch (RuntimeException rowException) {
+                    totals.errors.add(candidate.getLine(), candidate.getLogin(),
+                            NestedExceptionUtils.getMostSpecificCause(rowException).getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Сохраняет пользователей с ролями; вставки группируются Hibernate в JDBC batch (hibernate.jdbc.batch_size).
+     * persist вместо save: у User задаваемый id, и save выполнил бы SELECT на каждого пользователя.
+     * Контекст очищается после порции, чтобы сохраненные сущности не копились до конца запроса
+     */
+    private void persist(List<Candidate> candidates) {
+        for (Candidate candidate : candidates) {
+            User user = User.builder()
+                    .login(candidate.getLogin())
+                    .email(candidate.getEmail())
+                    .password(candidate.getPasswordHash())
+                    .provider(Provider.LOCAL)
+                    .active(true)
+                    .roleMask(RoleMask.fromRoleTypes(candidate.getRoles()))
+                    .roles(new ArrayList<>(candidate.getRoles().size()))
+                    .build();
+            for (Role.RoleType roleType : candidate.getRoles()) {
+                user.getRoles().add(UserRole.builder()
+                        .user(user)
+                        .role(roleRegistry.findReference(roleType)
+                                .orElseThrow(() -> new EntityNotFoundException("Role not found: " + roleType)))
+                        .build());
+            }
+            entityManager.persist(user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        roleMembershipService.refresh(candidates.stream().map(Candidate::getLogin).toList());
+    }
+
+    private record Chunk(List<Candidate> rows) {
+
+        void cancel() {
+            rows.forEach(candidate -> candidate.getHash().cancel(true));
+        }
+
+    }
+
+    @Getter
+    @Setter
+    private static final class Candidate {
+
+        private final long line;
+
+        private final String login;
+
+        private final String email;
+
+        private String password;
+
+        private String passwordHash;
+
+        private final EnumSet<Role.RoleType> roles;
+
+        private Future<String> hash;
+
+        Candidate(long line, String login, String email, String password, String passwordHash, EnumSet<Role.RoleType> roles) {
+            this.line = line;
+            this.login = login;
+            this.email = email;
+            this.password = password;
+            this.passwordHash = passwordHash;
+            this.roles = roles;
+        }
+
+    }
+
+    /**
+     * Заголовок CSV: колонки login, email, password, password_hash, roles в любом порядке.
+     * Значения разбираются по RFC 4180 в пределах одной строки; роли перечисляются через ';'
+     */
+    private record CsvHeader(Map<String, Integer> columns) {
+
+        static CsvHeader parse(String line) {
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = split(line);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("login") || !columns.containsKey("email")) {
+                throw new IllegalArgumentException("CSV header must contain login and email columns");
+            }
+            return new CsvHeader(columns);
+        }
+
+        UserImportRow read(String line) {
+            List<String> values = split(line);
+            if (values.size() != columns.size()) {
+                throw new IllegalArgumentException("expected " + columns.size() + " columns, got " + values.size());
+            }
+            String roles = value(values, "roles");
+            return new UserImportRow(
+                    value(values, "login"),
+                    value(values, "email"),
+                    value(values, "password"),
+                    value(values, "password_hash"),
+                    roles == null ? null : Arrays.stream(roles.split(";"))
+                            .map(String::trim)
+                            .filter(role -> !role.isEmpty())
+                            .map(Role.RoleType::valueOf)
+                            .toList());
+        }
+
+        private String value(List<String> values, String column) {
+            Integer index = columns.get(column);
+            if (index == null) {
+                return null;
+            }
+            String value = values.get(index);
+            return value.isEmpty() ? null : value;
+        }
+
+        private static List<String> split(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("unterminated quoted value");
+            }
+            values.add(current.toString());
+            return values;
+        }
+
+    }
+
+    private static final class Totals {
+
+        private long processed;
+
+        private long imported;
+
+        private final BulkRowErrors errors;
+
+        private Totals(int maxReportedErrors) {
+            this.errors = new BulkRowErrors(maxReportedErrors);
+        }
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package io.github.authmicroservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.authmicroservice.model.dto.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Ограниченный по размеру и времени жизни кэш UserPrincipal по логину.
+ * Загрузка выполняется атомарно для ключа, а evict ждет завершения уже идущей загрузки того же ключа,
+ * поэтому данные, прочитанные до фиксации изменения, не переживают удаление после фиксации.
+ * Изменения рассылаются другим экземплярам через CacheInvalidationBus.
+ * Метрики доступны как cache.* с тегом cache=users.principals
+ */
+@Component
+@Slf4j
+public class UserPrincipalCache implements CacheInvalidationListener {
+
+    static final String REGION = "user";
+
+    private final Cache<String, UserPrincipal> principals;
+
+    private final CacheInvalidationBus invalidationBus;
+
+    public UserPrincipalCache(MeterRegistry meterRegistry,
+                              CacheInvalidationBus invalidationBus,
+                              @Value("${application.security.user-cache.enabled:true}") boolean enabled,
+                              @Value("${application.security.user-cache.max-size:10000}") long maxSize,
+                              @Value("${application.security.user-cache.ttl:PT5M}") Duration ttl) {
+        this.invalidationBus = invalidationBus;
+        if (enabled) {
+            this.principals = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, principals, "users.principals");
+        } else {
+            this.principals = null;
+        }
+    }
+
+    /**
+     * Возвращает principal из кэша или загружает его; исключения загрузки не кэшируются
+     */
+    public UserPrincipal get(String login, Function<String, UserPrincipal> loader) {
+        if (principals == null) {
+            return loader.apply(login);
+        }
+        return principals.get(login, loader);
+    }
+
+    /**
+     * Удаляет пользователя из кэша на всех экземплярах. Внутри транзакции удаление выполняется после ее завершения,
+     * чтобы параллельный запрос не успел снова закэшировать еще не зафиксированное старое состояние
+     */
+    public void evict(String login) {
+        if (principals == null || login == null) {
+            return;
+        }
+        invalidationBus.publish(REGION, login);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(login);
+                }
+            });
+        } else {
+            invalidate(login);
+        }
+    }
+
+    @Override
+    public String region() {
+        return REGION;
+    }
+
+    /**
+     * Немедленно удаляет пользователя из локального кэша
+     */
+    @Override
+    public void invalidate(String login) {
+        if (principals != null) {
+            principals.invalidate(login);
+            log.debug("User {} evicted from principal cache", login);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        if (principals != null) {
+            principals.invalidateAll();
+        }
+    }
+
+}
@@ -4,9 +4,9 @@ import io.github.authmicroservice.model.dto.UserRolesRequest;
 import io.github.authmicroservice.model.entity.Role;
 import io.github.authmicroservice.model.entity.User;
 import io.github.authmicroservice.model.entity.UserRole;
-import io.github.authmicroservice.repository.RoleRepository;
 import io.github.authmicroservice.repository.UserRepository;
 import io.github.authmicroservice.repository.UserRoleRepository;
+import io.github.authmicroservice.util.RoleMask;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
@@ -17,7 +17,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.file.AccessDeniedException;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Реализация сервиса управления ролями пользователей
@@ -28,37 +31,64 @@ public class UserRoleServiceImpl implements UserRoleService {
 
     private final UserRepository userRepository;
 
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
 
     private final UserRoleRepository userRoleRepository;
 
+    private final UserPrincipalCache principalCache;
+
+    private final RoleMembershipService roleMembershipService;
+
+    /**
+     * Заменяет роли пользователя: удаляются только снятые роли (один DELETE),
+     * добавляются только новые (один JDBC batch INSERT), users.role_mask обновляется в той же транзакции;
+     * без изменений запись не выполняется
+     */
     @Override
     @Transactional
     public void saveUserRoles(UserRolesRequest request) {
 
-        List<Role.RoleType> roleTypes = request.getRoles();
-        List<UserRole> newRoles = new ArrayList<>();
-
-        User user = userRepository.findByLogin(request.getLogin())
-                .orElseThrow(() -> new EntityNotFoundException("User not found with login: " + request.getLogin()));
+        String login = request.getLogin();
 
-        List<UserRole> existingRoles = userRoleRepository.findByUser(user);
-
-        userRoleRepository.deleteAll(existingRoles);
+        if (!userRepository.existsById(login)) {
+            throw new EntityNotFoundException("User not found with login: " + login);
+        }
 
-        for (Role.RoleType roleType : roleTypes) {
-            Role role = roleRepository.findById(roleType)
+        Map<Role.RoleType, Role> requestedRoles = new EnumMap<>(Role.RoleType.class);
+        for (Role.RoleType roleType : request.getRoles()) {
+            Role role = roleRegistry.findReference(roleType)
                     .orElseThrow(() -> new EntityNotFoundException("Role not found: " + roleType));
+            requestedRoles.put(roleType, role);
+        }
 
-            UserRole userRole = UserRole.builder()
-                    .user(user)
-                    .role(role)
-                    .build();
-
-            newRoles.add(userRole);
+        EnumSet<Role.RoleType> existingRoles = EnumSet.noneOf(Role.RoleType.class);
+        existingRoles.addAll(userRoleRepository.findRoleTypesByUserLogin(login));
+
+        EnumSet<Role.RoleType> removedRoles = EnumSet.copyOf(existingRoles);
+        removedRoles.removeAll(requestedRoles.keySet());
+
+        List<UserRole> addedRoles = new ArrayList<>();
+        User user = userRepository.getReferenceById(login);
+        requestedRoles.forEach((roleType, role) -> {
+            if (!existingRoles.contains(roleType)) {
+                addedRoles.add(UserRole.builder()
+                        .user(user)
+                        .role(role)
+                        .build());
+            }
+        });
+
+        if (removedRoles.isEmpty() && addedRoles.isEmpty()) {
+            return;
         }
 
-        userRoleRepository.saveAll(newRoles);
+        if (!removedRoles.isEmpty()) {
+            userRoleRepository.deleteByUserLoginAndRoleTypes(login, removedRoles);
+        }
+        userRoleRepository.saveAll(addedRoles);
+        userRepository.updateRoleMask(List.of(login), RoleMask.fromRoleTypes(requestedRoles.keySet()));
+        principalCache.evict(login);
+        roleMembershipService.refresh(login);
     }
 
     @Override
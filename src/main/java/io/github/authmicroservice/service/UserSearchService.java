@@ -0,0 +1,16 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.UserSearchRequest;
+import io.github.authmicroservice.model.dto.UserSearchResponse;
+
+/**
+ * Поиск пользователей для администрирования
+ */
+public interface UserSearchService {
+
+    /**
+     * Возвращает страницу пользователей в порядке логина, начиная после курсора
+     */
+    UserSearchResponse search(UserSearchRequest request);
+
+}
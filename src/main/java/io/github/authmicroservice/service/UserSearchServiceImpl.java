@@ -0,0 +1,40 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.UserSearchRequest;
+import io.github.authmicroservice.model.dto.UserSearchResponse;
+import io.github.authmicroservice.model.dto.UserSummary;
+import io.github.authmicroservice.repository.UserSearchRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Реализация поиска пользователей. Запрашивается на одну строку больше размера страницы,
+ * чтобы понять, есть ли следующая, без COUNT по таблице
+ */
+@Service
+public class UserSearchServiceImpl implements UserSearchService {
+
+    private final UserSearchRepository userSearchRepository;
+
+    public UserSearchServiceImpl(UserSearchRepository userSearchRepository) {
+        this.userSearchRepository = userSearchRepository;
+    }
+
+    @Override
+    public UserSearchResponse search(UserSearchRequest request) {
+        List<UserSummary> users = userSearchRepository.search(request, request.getSize() + 1);
+
+        if (users.size() <= request.getSize()) {
+            return UserSearchResponse.builder()
+                    .users(users)
+                    .build();
+        }
+        List<UserSummary> page = users.subList(0, request.getSize());
+        return UserSearchResponse.builder()
+                .users(List.copyOf(page))
+                .nextCursor(page.get(page.size() - 1).getLogin())
+                .build();
+    }
+
+}
@@ -0,0 +1,61 @@
+package io.github.authmicroservice.util;
+
+import io.github.authmicroservice.model.dto.BulkRowError;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Ошибки строк массовой операции. Считаются все ошибки, а хранятся только limit ошибок с наименьшими номерами строк:
+ * файл из одних ошибочных строк не держит в памяти и не возвращает в ответе по объекту на каждую строку
+ */
+public class BulkRowErrors {
+
+    private static final Comparator<BulkRowError> BY_LINE = Comparator.comparingLong(BulkRowError::getLine);
+
+    private final int limit;
+
+    /**
+     * Куча с наибольшим номером строки в вершине: при переполнении вытесняется самая поздняя ошибка
+     */
+    private final PriorityQueue<BulkRowError> retained;
+
+    private long count;
+
+    public BulkRowErrors(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Error limit must not be negative");
+        }
+        this.limit = limit;
+        this.retained = new PriorityQueue<>(Math.max(1, limit), BY_LINE.reversed());
+    }
+
+    public void add(long line, String login, String error) {
+        count++;
+        if (retained.size() < limit) {
+            retained.add(new BulkRowError(line, login, error));
+        } else if (limit > 0 && line < retained.peek().getLine()) {
+            retained.poll();
+            retained.add(new BulkRowError(line, login, error));
+        }
+    }
+
+    /**
+     * @return число всех ошибок, включая не попавшие в список
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return сохраненные ошибки по возрастанию номера строки
+     */
+    public List<BulkRowError> toList() {
+        List<BulkRowError> errors = new ArrayList<>(retained);
+        errors.sort(BY_LINE);
+        return errors;
+    }
+
+}
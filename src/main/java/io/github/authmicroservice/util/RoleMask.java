@@ -0,0 +1,132 @@
+package io.github.authmicroservice.util;
+
+import io.github.authmicroservice.model.entity.Role;
+import lombok.experimental.UtilityClass;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Компактное представление набора ролей в виде битовой маски по ordinal Role.RoleType.
+ * Порядок констант RoleType фиксирован: новые роли добавляются только в конец,
+ * иначе маски в уже выданных токенах будут расшифрованы неверно
+ */
+@UtilityClass
+public class RoleMask {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private static final Role.RoleType[] ROLE_TYPES = Role.RoleType.values();
+
+    /**
+     * Маска хранится в users.role_mask типа SMALLINT: знаковые 16 бит вмещают без знака 15 ролей
+     */
+    private static final int MAX_ROLES = 15;
+
+    /**
+     * Списки ролей и authorities для каждой возможной маски: декодирование не создает объектов
+     */
+    private static final List<List<String>> ROLE_NAMES;
+
+    private static final List<List<GrantedAuthority>> AUTHORITIES;
+
+    static {
+        if (ROLE_TYPES.length > MAX_ROLES) {
+            throw new IllegalStateException("RoleMask supports up to " + MAX_ROLES + " roles");
+        }
+        int masks = 1 << ROLE_TYPES.length;
+        List<List<String>> names = new ArrayList<>(masks);
+        List<List<GrantedAuthority>> authorities = new ArrayList<>(masks);
+        for (int mask = 0; mask < masks; mask++) {
+            List<String> maskNames = decode(mask).stream()
+                    .map(roleType -> ROLE_PREFIX + roleType.name())
+                    .toList();
+            names.add(maskNames);
+            authorities.add(maskNames.stream()
+                    .map(name -> (GrantedAuthority) new SimpleGrantedAuthority(name))
+                    .toList());
+        }
+        ROLE_NAMES = List.copyOf(names);
+        AUTHORITIES = List.copyOf(authorities);
+    }
+
+    /**
+     * Кодирует authorities вида ROLE_&lt;RoleType&gt; в маску
+     * @return маска или -1, если среди authorities есть значения, не соответствующие RoleType
+     */
+    public static int encode(Collection<? extends GrantedAuthority> authorities) {
+        int mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            Role.RoleType roleType = toRoleType(authority.getAuthority());
+            if (roleType == null) {
+                return -1;
+            }
+            mask |= 1 << roleType.ordinal();
+        }
+        return mask;
+    }
+
+    public static int fromRoleTypes(Collection<Role.RoleType> roleTypes) {
+        int mask = 0;
+        for (Role.RoleType roleType : roleTypes) {
+            mask |= 1 << roleType.ordinal();
+        }
+        return mask;
+    }
+
+    public static EnumSet<Role.RoleType> decode(int mask) {
+        requireValid(mask);
+        EnumSet<Role.RoleType> roleTypes = EnumSet.noneOf(Role.RoleType.class);
+        for (Role.RoleType roleType : ROLE_TYPES) {
+            if ((mask & (1 << roleType.ordinal())) != 0) {
+                roleTypes.add(roleType);
+            }
+        }
+        return roleTypes;
+    }
+
+    /**
+     * Имена ролей (ROLE_...) для маски; возвращается общий неизменяемый список
+     */
+    public static List<String> roleNames(int mask) {
+        requireValid(mask);
+        return ROLE_NAMES.get(mask);
+    }
+
+    /**
+     * Authorities для маски; возвращается общий неизменяемый список
+     */
+    public static List<GrantedAuthority> authorities(int mask) {
+        requireValid(mask);
+        return AUTHORITIES.get(mask);
+    }
+
+    public static boolean isValid(int mask) {
+        return mask >= 0 && mask < 1 << ROLE_TYPES.length;
+    }
+
+    private static void requireValid(int mask) {
+        if (!isValid(mask)) {
+            throw new IllegalArgumentException("Unknown roles in role mask: " + mask);
+        }
+    }
+
+    /**
+     * @return RoleType для authority вида ROLE_&lt;RoleType&gt; или null для остальных значений
+     */
+    public static Role.RoleType toRoleType(String authority) {
+        if (authority == null || !authority.startsWith(ROLE_PREFIX)) {
+            return null;
+        }
+        try {
+            return Role.RoleType.valueOf(authority.substring(ROLE_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+}
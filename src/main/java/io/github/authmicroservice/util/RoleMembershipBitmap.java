@@ -0,0 +1,208 @@
+package io.github.authmicroservice.util;
+
+import io.github.authmicroservice.model.entity.Role;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс роль –> пользователи: по BitSet на каждую Role.RoleType над плотной нумерацией логинов.
+ * Логины, известные на момент построения, пронумерованы в порядке compareTo, поэтому страница участников роли
+ * находится бинарным поиском и обходом битов без сортировки. Пользователи, появившиеся позже, получают номера
+ * в хвосте и на странице досортировываются отдельно, до следующего построения индекса.
+ * Номер пользователя не освобождается, даже если у него не осталось ролей.
+ * Потокобезопасен: чтения параллельны, изменения – под блокировкой записи
+ */
+public final class RoleMembershipBitmap {
+
+    private static final Role.RoleType[] ROLE_TYPES = Role.RoleType.values();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> ids;
+
+    private final BitSet[] members = new BitSet[ROLE_TYPES.length];
+
+    private final int[] counts = new int[ROLE_TYPES.length];
+
+    private final int sortedSize;
+
+    private String[] logins;
+
+    private int size;
+
+    private RoleMembershipBitmap(List<Member> sorted) {
+        this.sortedSize = sorted.size();
+        this.size = sortedSize;
+        this.logins = new String[Math.max(16, sortedSize + sortedSize / 8)];
+        this.ids = HashMap.newHashMap(logins.length);
+        for (int i = 0; i < members.length; i++) {
+            members[i] = new BitSet(sortedSize);
+        }
+        for (int id = 0; id < sortedSize; id++) {
+            Member member = sorted.get(id);
+            logins[id] = member.login();
+            ids.put(member.login(), id);
+            setMask(id, member.roleMask());
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Заменяет роли пользователя; новый пользователь получает номер в хвосте
+     * @return true, если состав ролей изменился
+     */
+    public boolean update(String login, Collection<Role.RoleType> roles) {
+        int mask = RoleMask.fromRoleTypes(roles);
+        lock.writeLock().lock();
+        try {
+            Integer id = ids.get(login);
+            if (id == null) {
+                if (mask == 0) {
+                    return false;
+                }
+                id = append(login);
+            }
+            return setMask(id, mask);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int count(Role.RoleType role) {
+        lock.readLock().lock();
+        try {
+            return counts[role.ordinal()];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество пронумерованных пользователей, включая оставшихся без ролей
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Страница логинов пользователей с ролью в порядке compareTo
+     * @param after логин, после которого начинается страница; null – с начала
+     * @param limit максимальный размер страницы
+     */
+    public List<String> members(Role.RoleType role, String after, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet bits = members[role.ordinal()];
+
+            int start = 0;
+            if (after != null) {
+                int position = Arrays.binarySearch(logins, 0, sortedSize, after);
+                start = position >= 0 ? position + 1 : -position - 1;
+            }
+            List<String> page = new ArrayList<>(Math.min(limit, counts[role.ordinal()]));
+            for (int id = bits.nextSetBit(start); id >= 0 && id < sortedSize && page.size() < limit; id = bits.nextSetBit(id + 1)) {
+                page.add(logins[id]);
+            }
+
+            if (size == sortedSize) {
+                return page;
+            }
+            List<String> appended = new ArrayList<>();
+            for (int id = bits.nextSetBit(sortedSize); id >= 0; id = bits.nextSetBit(id + 1)) {
+                if (after == null || logins[id].compareTo(after) > 0) {
+                    appended.add(logins[id]);
+                }
+            }
+            if (appended.isEmpty()) {
+                return page;
+            }
+            appended.sort(Comparator.naturalOrder());
+            return merge(page, appended, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<String> merge(List<String> first, List<String> second, int limit) {
+        List<String> merged = new ArrayList<>(Math.min(limit, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < first.size() || j < second.size())) {
+            if (j == second.size() || i < first.size() && first.get(i).compareTo(second.get(j)) < 0) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private int append(String login) {
+        if (size == logins.length) {
+            logins = Arrays.copyOf(logins, size + (size >> 1));
+        }
+        int id = size++;
+        logins[id] = login;
+        ids.put(login, id);
+        return id;
+    }
+
+    private boolean setMask(int id, int mask) {
+        boolean changed = false;
+        for (Role.RoleType role : ROLE_TYPES) {
+            int ordinal = role.ordinal();
+            boolean present = (mask & (1 << ordinal)) != 0;
+            if (members[ordinal].get(id) != present) {
+                members[ordinal].set(id, present);
+                counts[ordinal] += present ? 1 : -1;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Накопитель ролей для построения индекса. Строки одного пользователя могут идти в любом порядке
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> masks = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(String login, Role.RoleType role) {
+            masks.merge(login, 1 << role.ordinal(), (left, right) -> left | right);
+            return this;
+        }
+
+        public RoleMembershipBitmap build() {
+            List<Member> sorted = new ArrayList<>(masks.size());
+            masks.forEach((login, mask) -> sorted.add(new Member(login, mask)));
+            sorted.sort(Comparator.comparing(Member::login));
+            return new RoleMembershipBitmap(sorted);
+        }
+
+    }
+
+    private record Member(String login, int roleMask) {
+
+    }
+
+}
@@ -1,37 +1,165 @@
 package io.github.authmicroservice.util;
 
-import lombok.experimental.UtilityClass;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
 
 /**
- * Класс для генерации соли на основе логина и email пользователя.
+ * Генерация соли на основе логина и email пользователя: Base64(SHA-256(globalSalt:login:email)), первые 32 символа.
+ * Глобальная соль поглощается прототипом MessageDigest один раз при создании, поэтому вызов не ищет провайдера
+ * и не хеширует ее заново. На каждый вызов прототип клонируется, а login и email подаются в дайджест
+ * байтами UTF-8 через буферы потока без промежуточных строк и массивов; выделяются только клон дайджеста и результат.
+ * До перевода в компонент глобальная соль не внедрялась в статическое поле и фактически была строкой "null";
+ * соль с ней по-прежнему доступна для проверки старых хешей (generateNullSalt)
  */
-@UtilityClass
+@Component
 public class SaltGenerator {
 
-    @Value("${auth.global.salt}")
-    private static String globalSalt;
+    static final String NULL_SALT = "null";
+
+    private static final int SALT_LENGTH = 32;
+
+    private static final int DIGEST_LENGTH = 32;
+
+    private static final byte SEPARATOR = ':';
+
+    private static final byte[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private final MessageDigest prototype;
+
+    private final MessageDigest nullSaltPrototype;
+
+    /**
+     * @param globalSalt     глобальная соль
+     * @param nullSaltEnabled проверять ли старые хеши, созданные с солью "null"
+     */
+    public SaltGenerator(@Value("${auth.global.salt}") String globalSalt,
+                         @Value("${auth.global.legacy-null-salt:true}") boolean nullSaltEnabled) {
+        this.prototype = seededPrototype(globalSalt);
+        this.nullSaltPrototype = nullSaltEnabled && !NULL_SALT.equals(globalSalt) ? seededPrototype(NULL_SALT) : null;
+    }
 
     /**
      * Генерирует соль на основе логина и email пользователя
      * Одинаковые login и email всегда дают одинаковую соль
      */
-    public static String generateUniqueSalt(String login, String email) {
+    public String generateUniqueSalt(String login, String email) {
+        return generate(prototype, login, email);
+    }
+
+    /**
+     * Соль, которую давала прежняя реализация с невнедренной глобальной солью.
+     * Возвращает null, если проверка таких хешей отключена или глобальная соль и так равна "null"
+     */
+    public String generateNullSalt(String login, String email) {
+        return nullSaltPrototype == null ? null : generate(nullSaltPrototype, login, email);
+    }
+
+    private static String generate(MessageDigest seeded, String login, String email) {
+        Buffers buffers = BUFFERS.get();
+        MessageDigest digest = copy(seeded);
+
+        int length = buffers.encode(login, 0);
+        buffers.input[length++] = SEPARATOR;
+        length = buffers.encode(email, length);
+        digest.update(buffers.input, 0, length);
+
         try {
-            String combined = globalSalt + ":" + login + ":" + email;
+            digest.digest(buffers.digest, 0, DIGEST_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException("Could not generate salt: " + e.getMessage(), e);
+        }
 
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] saltBytes = digest.digest(combined.getBytes(StandardCharsets.UTF_8));
+        byte[] hash = buffers.digest;
+        byte[] salt = buffers.salt;
+        for (int i = 0, j = 0; j < SALT_LENGTH; i += 3) {
+            int bits = (hash[i] & 0xff) << 16 | (hash[i + 1] & 0xff) << 8 | hash[i + 2] & 0xff;
+            salt[j++] = BASE64[bits >>> 18];
+            salt[j++] = BASE64[bits >>> 12 & 0x3f];
+            salt[j++] = BASE64[bits >>> 6 & 0x3f];
+            salt[j++] = BASE64[bits & 0x3f];
+        }
+        return new String(salt, 0, SALT_LENGTH, StandardCharsets.US_ASCII);
+    }
 
-            return Base64.getEncoder().encodeToString(saltBytes).substring(0, 32);
+    private static MessageDigest seededPrototype(String globalSalt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((globalSalt + ":").getBytes(StandardCharsets.UTF_8));
+            // прототипом служит клон: так при старте проверяется, что дайджест провайдера поддерживает clone()
+            return copy(digest);
         } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Could not generate salt: " + e.getMessage(), e);
+            throw new IllegalStateException("Could not generate salt: " + e.getMessage(), e);
         }
     }
 
+    private static MessageDigest copy(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 implementation does not support cloning", e);
+        }
+    }
+
+    /**
+     * Буферы потока: байты login:email, дайджест и символы соли
+     */
+    private static final class Buffers {
+
+        private byte[] input = new byte[256];
+
+        private final byte[] digest = new byte[DIGEST_LENGTH];
+
+        private final byte[] salt = new byte[SALT_LENGTH];
+
+        /**
+         * Кодирует строку в UTF-8 так же, как String.getBytes: null дает "null", одиночный суррогат – '?'
+         */
+        int encode(String value, int position) {
+            String text = value == null ? NULL_SALT : value;
+            int length = text.length();
+            ensureCapacity(position + length * 3 + 1);
+
+            byte[] out = input;
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    out[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    out[position++] = (byte) (0xc0 | c >> 6);
+                    out[position++] = (byte) (0x80 | c & 0x3f);
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    out[position++] = (byte) (0xf0 | codePoint >> 18);
+                    out[position++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                    out[position++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                    out[position++] = (byte) (0x80 | codePoint & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    out[position++] = '?';
+                } else {
+                    out[position++] = (byte) (0xe0 | c >> 12);
+                    out[position++] = (byte) (0x80 | c >> 6 & 0x3f);
+                    out[position++] = (byte) (0x80 | c & 0x3f);
+                }
+            }
+            return position;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (input.length < capacity) {
+                byte[] grown = new byte[Math.max(capacity, input.length * 2)];
+                System.arraycopy(input, 0, grown, 0, input.length);
+                input = grown;
+            }
+        }
+
+    }
+
 }
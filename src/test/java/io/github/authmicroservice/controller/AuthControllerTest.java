@@ -2,7 +2,10 @@ package io.github.authmicroservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.authmicroservice.exception.GlobalExceptionHandler;
+import io.github.authmicroservice.exception.InvalidRefreshTokenException;
+import io.github.authmicroservice.exception.PasswordHashingRejectedException;
 import io.github.authmicroservice.model.dto.JwtResponse;
+import io.github.authmicroservice.model.dto.RefreshRequest;
 import io.github.authmicroservice.model.dto.SigninRequest;
 import io.github.authmicroservice.model.dto.SignupRequest;
 import io.github.authmicroservice.service.AuthService;
@@ -24,6 +27,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -127,5 +131,60 @@ public class AuthControllerTest {
         verify(authService, times(1)).signin(any(SigninRequest.class));
     }
 
+    @Test
+    void signin_HashingPoolSaturated_TooManyRequests() throws Exception {
+        SigninRequest signinRequest = new SigninRequest();
+        signinRequest.setLogin("testuser");
+        signinRequest.setPassword("password123");
+
+        when(authService.signin(any(SigninRequest.class)))
+                .thenThrow(new PasswordHashingRejectedException("Too many concurrent password checks, retry later"));
+
+        mockMvc.perform(post("/api/v1/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(signinRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void refresh_ValidToken_ReturnsNewTokens() throws Exception {
+        JwtResponse jwtResponse = new JwtResponse();
+        jwtResponse.setToken("eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9");
+        jwtResponse.setRefreshToken("next-refresh-token");
+
+        when(authService.refresh(any(RefreshRequest.class))).thenReturn(jwtResponse);
+
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest("refresh-token"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9"))
+                .andExpect(jsonPath("$.refreshToken").value("next-refresh-token"));
+
+        verify(authService, times(1)).refresh(any(RefreshRequest.class));
+    }
+
+    @Test
+    void refresh_ReusedToken_Unauthorized() throws Exception {
+        when(authService.refresh(any(RefreshRequest.class)))
+                .thenThrow(new InvalidRefreshTokenException("Refresh token has already been used"));
+
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest("refresh-token"))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Refresh token has already been used"));
+    }
+
+    @Test
+    void refresh_BlankToken_BadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest(""))))
+                .andExpect(status().isBadRequest());
+
+        verify(authService, times(0)).refresh(any(RefreshRequest.class));
+    }
 
 }
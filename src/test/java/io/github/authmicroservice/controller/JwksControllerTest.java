@@ -0,0 +1,58 @@
+package io.github.authmicroservice.controller;
+
+import io.github.authmicroservice.security.key.SigningKeyRing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class JwksControllerTest {
+
+    @Mock
+    private SigningKeyRing keyRing;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new JwksController(keyRing, Duration.ofHours(1)))
+                .build();
+    }
+
+    @Test
+    void getJwkSet_ReturnsKeysWithCacheHeaders() throws Exception {
+        when(keyRing.getJwkSet()).thenReturn(Map.of("keys", List.of(Map.of("kty", "RSA", "kid", "key-1"))));
+
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("Cache-Control", "max-age=3600, public"))
+                .andExpect(jsonPath("$.keys[0].kid").value("key-1"));
+    }
+
+    @Test
+    void getJwkSet_SymmetricMode_ReturnsEmptySet() throws Exception {
+        when(keyRing.getJwkSet()).thenReturn(Map.of("keys", List.of()));
+
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keys").isEmpty());
+    }
+
+}
@@ -0,0 +1,204 @@
+package io.github.authmicroservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.authmicroservice.exception.GlobalExceptionHandler;
+import io.github.authmicroservice.model.dto.TokenIntrospectionResponse;
+import io.github.authmicroservice.model.dto.VerifiedToken;
+import io.github.authmicroservice.service.JwtService;
+import io.github.authmicroservice.service.TokenIntrospectionService;
+import io.github.authmicroservice.service.TokenRevocationService;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.http.MediaType;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenControllerTest {
+
+    @Mock
+    private TokenIntrospectionService introspectionService;
+
+    @Mock
+    private TokenRevocationService revocationService;
+
+    @Mock
+    private JwtService jwtService;
+
+    private MockMvc mockMvc;
+
+    /**
+     * Контроллер оборачивается проверкой @PreAuthorize, как в приложении с @EnableMethodSecurity
+     */
+    @BeforeEach
+    void setUp() {
+        ProxyFactory proxyFactory = new ProxyFactory(
+                new TokenController(introspectionService, revocationService, jwtService, new ObjectMapper()));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(AuthorizationManagerBeforeMethodInterceptor.preAuthorize());
+        mockMvc = MockMvcBuilders.standaloneSetup(proxyFactory.getProxy())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void introspect_StreamsResultsInRequestOrder() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(authentication("admin", "ROLE_ADMIN"));
+        doAnswer(invocation -> {
+            Consumer<TokenIntrospectionResponse> consumer = invocation.getArgument(1);
+            consumer.accept(new TokenIntrospectionResponse(true, "user", List.of("USER"), 1700000000L));
+            consumer.accept(TokenIntrospectionResponse.inactive());
+            return null;
+        }).when(introspectionService).introspect(eq(List.of("valid", "invalid")), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/tokens/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tokens\":[\"valid\",\"invalid\"]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].active").value(true))
+                .andExpect(jsonPath("$[0].sub").value("user"))
+                .andExpect(jsonPath("$[0].roles[0]").value("USER"))
+                .andExpect(jsonPath("$[1].active").value(false))
+                .andExpect(jsonPath("$[1].sub").doesNotExist());
+    }
+
+    @Test
+    void introspect_EmptyTokens_ReturnsBadRequest() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(authentication("admin", "ROLE_ADMIN"));
+        mockMvc.perform(post("/api/v1/tokens/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tokens\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(introspectionService);
+    }
+
+    @Test
+    void introspect_WithoutAdminRole_Forbidden() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(authentication("user", "ROLE_USER"));
+
+        mockMvc.perform(post("/api/v1/tokens/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tokens\":[\"valid\"]}"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(introspectionService);
+    }
+
+    @Test
+    void revoke_OwnToken_Revokes() throws Exception {
+        VerifiedToken token = verifiedToken("user");
+        when(jwtService.verify("own-token")).thenReturn(token);
+
+        mockMvc.perform(post("/api/v1/tokens/revoke")
+                        .principal(authentication("user", "ROLE_USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"own-token\"}"))
+                .andExpect(status().isNoContent());
+
+        verify(revocationService).revoke(token);
+    }
+
+    @Test
+    void revoke_ForeignTokenByUser_Forbidden() throws Exception {
+        when(jwtService.verify("foreign-token")).thenReturn(verifiedToken("other"));
+
+        mockMvc.perform(post("/api/v1/tokens/revoke")
+                        .principal(authentication("user", "ROLE_USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"foreign-token\"}"))
+                .andExpect(status().isForbidden());
+
+        verify(revocationService, never()).revoke(any());
+    }
+
+    @Test
+    void revoke_ForeignTokenByAdmin_Revokes() throws Exception {
+        VerifiedToken token = verifiedToken("other");
+        when(jwtService.verify("foreign-token")).thenReturn(token);
+
+        mockMvc.perform(post("/api/v1/tokens/revoke")
+                        .principal(authentication("admin", "ROLE_ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"foreign-token\"}"))
+                .andExpect(status().isNoContent());
+
+        verify(revocationService).revoke(token);
+    }
+
+    @Test
+    void revoke_InvalidToken_NoContent() throws Exception {
+        when(jwtService.verify("broken")).thenThrow(new JwtException("Invalid signature"));
+
+        mockMvc.perform(post("/api/v1/tokens/revoke")
+                        .principal(authentication("user", "ROLE_USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"broken\"}"))
+                .andExpect(status().isNoContent());
+
+        verifyNoInteractions(revocationService);
+    }
+
+    @Test
+    void revoke_TokenWithoutJti_BadRequest() throws Exception {
+        when(jwtService.verify("legacy-token"))
+                .thenReturn(new VerifiedToken(null, "user", List.of("ROLE_USER"), Instant.now(), Instant.now().plusSeconds(3600)));
+
+        mockMvc.perform(post("/api/v1/tokens/revoke")
+                        .principal(authentication("user", "ROLE_USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"legacy-token\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Token was issued without jti and cannot be revoked"));
+
+        verifyNoInteractions(revocationService);
+    }
+
+    private static VerifiedToken verifiedToken(String subject) {
+        return new VerifiedToken("jti-1", subject, List.of("ROLE_USER"), Instant.now(), Instant.now().plusSeconds(3600));
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication(String login, String role) {
+        return new UsernamePasswordAuthenticationToken(login, null, List.of(new SimpleGrantedAuthority(role)));
+    }
+
+}
@@ -2,9 +2,15 @@ package io.github.authmicroservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.authmicroservice.config.BaseTestSecurityConfig;
+import io.github.authmicroservice.model.dto.BulkRoleAssignmentResponse;
+import io.github.authmicroservice.model.dto.BulkRowError;
+import io.github.authmicroservice.model.dto.RoleMembersResponse;
 import io.github.authmicroservice.model.dto.UserRolesRequest;
 import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.enums.BulkRoleMode;
 import io.github.authmicroservice.security.config.SecurityConfig;
+import io.github.authmicroservice.service.BulkRoleAssignmentService;
+import io.github.authmicroservice.service.RoleMembershipService;
 import io.github.authmicroservice.service.UserRoleService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,12 +24,15 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,6 +44,12 @@ public class UserRoleControllerTest {
     @MockitoBean
     private UserRoleService userRoleService;
 
+    @MockitoBean
+    private BulkRoleAssignmentService bulkRoleAssignmentService;
+
+    @MockitoBean
+    private RoleMembershipService roleMembershipService;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -134,4 +149,82 @@ public class UserRoleControllerTest {
         verify(userRoleService, times(0)).getUserRoles(eq(login));
     }
 
-}
\ No newline at end of file
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void assignRolesInBulk_WithAdminRole_ReturnsSummary() throws Exception {
+        BulkRoleAssignmentResponse response = BulkRoleAssignmentResponse.builder()
+                .processed(2)
+                .changed(1)
+                .unchanged(0)
+                .failed(1)
+                .errors(List.of(new BulkRowError(2, "unknown", "User not found with login: unknown")))
+                .build();
+        when(bulkRoleAssignmentService.assignRoles(any(), eq(BulkRoleMode.ADD))).thenReturn(response);
+
+        mockMvc.perform(post("/api/v1/user-roles/bulk")
+                        .param("mode", "ADD")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"login\":\"testuser\",\"roles\":[\"ADMIN\"]}\n{\"login\":\"unknown\",\"roles\":[\"USER\"]}\n")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].login").value("unknown"));
+
+        verify(bulkRoleAssignmentService, times(1)).assignRoles(any(), eq(BulkRoleMode.ADD));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void assignRolesInBulk_WithoutAdminRole_Forbidden() throws Exception {
+        mockMvc.perform(post("/api/v1/user-roles/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"login\":\"testuser\",\"roles\":[\"ADMIN\"]}\n")
+                        .with(csrf()))
+                .andExpect(status().isForbidden());
+
+        verify(bulkRoleAssignmentService, times(0)).assignRoles(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getRoleMembers_WithCursor_ReturnsPage() throws Exception {
+        RoleMembersResponse response = RoleMembersResponse.builder()
+                .role(Role.RoleType.DEAL_SUPERUSER)
+                .total(3)
+                .logins(List.of("bob", "carol"))
+                .nextCursor("carol")
+                .build();
+        when(roleMembershipService.getMembers(Role.RoleType.DEAL_SUPERUSER, "alice", 2)).thenReturn(response);
+
+        mockMvc.perform(get("/api/v1/user-roles/roles/{role}/users", "DEAL_SUPERUSER")
+                        .param("after", "alice")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.logins[0]").value("bob"))
+                .andExpect(jsonPath("$.nextCursor").value("carol"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getRoleMembers_SizeOutOfRange_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/user-roles/roles/{role}/users", "USER")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(roleMembershipService, times(0)).getMembers(any(), any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void countRoleMembers_WithAdminRole_ReturnsCounts() throws Exception {
+        when(roleMembershipService.countMembers()).thenReturn(Map.of(Role.RoleType.CREDIT_USER, 7));
+
+        mockMvc.perform(get("/api/v1/user-roles/roles/counts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.CREDIT_USER").value(7));
+    }
+
+}
@@ -0,0 +1,158 @@
+package io.github.authmicroservice.controller;
+
+import io.github.authmicroservice.config.BaseTestSecurityConfig;
+import io.github.authmicroservice.model.dto.UserSummary;
+import io.github.authmicroservice.model.dto.UserImportResponse;
+import io.github.authmicroservice.model.dto.UserSearchRequest;
+import io.github.authmicroservice.model.dto.UserSearchResponse;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.enums.Provider;
+import io.github.authmicroservice.model.enums.UserImportFormat;
+import io.github.authmicroservice.security.config.SecurityConfig;
+import io.github.authmicroservice.service.UserExportService;
+import io.github.authmicroservice.service.UserImportService;
+import io.github.authmicroservice.service.UserSearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(UsersController.class)
+@Import({SecurityConfig.class, BaseTestSecurityConfig.class})
+@AutoConfigureMockMvc
+public class UsersControllerTest {
+
+    @MockitoBean
+    private UserImportService userImportService;
+
+    @MockitoBean
+    private UserExportService userExportService;
+
+    @MockitoBean
+    private UserSearchService userSearchService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void importUsers_CsvWithAdminRole_ReturnsSummary() throws Exception {
+        when(userImportService.importUsers(any(), eq(UserImportFormat.CSV))).thenReturn(UserImportResponse.builder()
+                .processed(1)
+                .imported(1)
+                .failed(0)
+                .errors(List.of())
+                .build());
+
+        mockMvc.perform(post("/api/v1/users/import")
+                        .contentType("text/csv")
+                        .content("login,email,password\nnewuser,new@mail.com,password123\n")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors").isEmpty());
+
+        verify(userImportService, times(1)).importUsers(any(), eq(UserImportFormat.CSV));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void importUsers_WithoutAdminRole_Forbidden() throws Exception {
+        mockMvc.perform(post("/api/v1/users/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"login\":\"newuser\",\"email\":\"new@mail.com\",\"password\":\"password123\"}\n")
+                        .with(csrf()))
+                .andExpect(status().isForbidden());
+
+        verify(userImportService, times(0)).importUsers(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @SuppressWarnings("unchecked")
+    void exportUsers_WithAdminRole_WritesOneLinePerUser() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<UserSummary> sink = invocation.getArgument(0);
+            sink.accept(new UserSummary("alice", "alice@mail.com", Provider.LOCAL, true, null,
+                    List.of(Role.RoleType.USER, Role.RoleType.ADMIN)));
+            sink.accept(new UserSummary("bob", "bob@mail.com", Provider.GITHUB, false, "Bob", List.of()));
+            return 2L;
+        }).when(userExportService).export(any(Consumer.class));
+
+        mockMvc.perform(get("/api/v1/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"login\":\"alice\",\"email\":\"alice@mail.com\",\"provider\":\"LOCAL\",\"active\":true,"
+                                + "\"fullName\":null,\"roles\":[\"USER\",\"ADMIN\"]}\n"
+                                + "{\"login\":\"bob\",\"email\":\"bob@mail.com\",\"provider\":\"GITHUB\",\"active\":false,"
+                                + "\"fullName\":\"Bob\",\"roles\":[]}\n"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    @SuppressWarnings("unchecked")
+    void exportUsers_WithoutAdminRole_Forbidden() throws Exception {
+        mockMvc.perform(get("/api/v1/users/export"))
+                .andExpect(status().isForbidden());
+
+        verify(userExportService, times(0)).export(any(Consumer.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void searchUsers_WithFilters_ReturnsPageAndCursor() throws Exception {
+        when(userSearchService.search(any(UserSearchRequest.class))).thenReturn(UserSearchResponse.builder()
+                .users(List.of(new UserSummary("alice", "alice@gmail.com", Provider.GOOGLE, false, null, List.of(Role.RoleType.ADMIN))))
+                .nextCursor("alice")
+                .build());
+
+        mockMvc.perform(get("/api/v1/users")
+                        .param("provider", "GOOGLE")
+                        .param("role", "ADMIN")
+                        .param("active", "false")
+                        .param("after", "aaron")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].login").value("alice"))
+                .andExpect(jsonPath("$.nextCursor").value("alice"));
+
+        verify(userSearchService).search(argThat(request -> request.getProvider() == Provider.GOOGLE
+                && request.getRole() == Role.RoleType.ADMIN
+                && Boolean.FALSE.equals(request.getActive())
+                && "aaron".equals(request.getAfter())
+                && request.getSize() == 1));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void searchUsers_SizeOutOfRange_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/users").param("size", "10000"))
+                .andExpect(status().isBadRequest());
+
+        verify(userSearchService, times(0)).search(any());
+    }
+
+}
@@ -11,6 +11,7 @@ import io.github.authmicroservice.repository.RoleRepository;
 import io.github.authmicroservice.repository.UserRepository;
 import io.github.authmicroservice.repository.UserRoleRepository;
 import io.github.authmicroservice.service.AuthService;
+import io.github.authmicroservice.service.RoleRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -61,6 +62,9 @@ public class OauthIntegrationTest {
     @Autowired
     private UserRoleRepository userRoleRepository;
 
+    @Autowired
+    private RoleRegistry roleRegistry;
+
     private Role userRole;
 
     @BeforeEach
@@ -71,6 +75,7 @@ public class OauthIntegrationTest {
                         .id(Role.RoleType.USER)
                         .name("USER")
                         .build()));
+        roleRegistry.reload();
     }
 
     @Test
@@ -86,6 +91,7 @@ public class OauthIntegrationTest {
 
         assertNotNull(response);
         assertNotNull(response.getToken());
+        assertNotNull(response.getRefreshToken());
         assertEquals("test", response.getLogin());
         assertEquals(List.of("ROLE_USER"), response.getRoles());
 
@@ -139,6 +145,7 @@ public class OauthIntegrationTest {
 
         assertNotNull(response);
         assertNotNull(response.getToken());
+        assertNotNull(response.getRefreshToken());
         assertEquals("oldlogin", response.getLogin());
         assertEquals(List.of("ROLE_USER"), response.getRoles());
 
@@ -167,6 +174,7 @@ public class OauthIntegrationTest {
 
         assertNotNull(response);
         assertNotNull(response.getToken());
+        assertNotNull(response.getRefreshToken());
         assertEquals("testuser", response.getLogin());
         assertEquals(List.of("ROLE_USER"), response.getRoles());
 
@@ -220,6 +228,7 @@ public class OauthIntegrationTest {
 
         assertNotNull(response);
         assertNotNull(response.getToken());
+        assertNotNull(response.getRefreshToken());
         assertEquals("oldlogin", response.getLogin());
         assertEquals(List.of("ROLE_USER"), response.getRoles());
 
@@ -237,6 +246,7 @@ public class OauthIntegrationTest {
     @Test
     void googleOauthLoginProcess_UserRoleNotFound_ThrowsException() {
         roleRepository.deleteById(Role.RoleType.USER);
+        roleRegistry.reload();
 
         GoogleLoginInfo googleInfo = GoogleLoginInfo.builder()
                 .id("google123")
@@ -254,6 +264,7 @@ public class OauthIntegrationTest {
     @Test
     void githubOauthLoginProcess_UserRoleNotFound_ThrowsException() {
         roleRepository.deleteById(Role.RoleType.USER);
+        roleRegistry.reload();
 
         GitHubLoginInfo githubInfo = GitHubLoginInfo.builder()
                 .id("github123")
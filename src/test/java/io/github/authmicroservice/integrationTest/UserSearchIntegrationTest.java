@@ -0,0 +1,172 @@
+package io.github.authmicroservice.integrationTest;
+
+import io.github.authmicroservice.model.dto.UserSearchRequest;
+import io.github.authmicroservice.model.dto.UserSearchResponse;
+import io.github.authmicroservice.model.dto.UserSummary;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.enums.Provider;
+import io.github.authmicroservice.repository.UserSearchRepository;
+import io.github.authmicroservice.service.UserSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Поиск пользователей и планы запросов на PostgreSQL. Таблицы в тесте маленькие, поэтому последовательное
+ * сканирование отключается: план без Seq Scan означает, что для запроса есть подходящий индекс
+ */
+@SpringBootTest
+@Testcontainers
+@Transactional
+public class UserSearchIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:latest")
+            .withDatabaseName("auth_test")
+            .withUsername("auth")
+            .withPassword("1234");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserSearchService userSearchService;
+
+    @Autowired
+    private UserSearchRepository userSearchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        insertUser("alice", "alice@gmail.com", Provider.GOOGLE, true, Role.RoleType.USER, Role.RoleType.ADMIN);
+        insertUser("bob", "bob@mail.com", Provider.LOCAL, false, Role.RoleType.USER);
+        insertUser("carol", "carol@mail.com", Provider.GITHUB, true, Role.RoleType.USER);
+        insertUser("dave", "dave@gmail.com", Provider.GOOGLE, false);
+        insertUser("erin", "erin@mail.com", Provider.LOCAL, true, Role.RoleType.ADMIN);
+    }
+
+    @Test
+    void search_PagesThroughAllUsersWithCursor() {
+        List<String> logins = new ArrayList<>();
+        String cursor = null;
+        do {
+            UserSearchResponse page = userSearchService.search(UserSearchRequest.builder().after(cursor).size(2).build());
+            page.getUsers().forEach(user -> logins.add(user.getLogin()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("alice", "bob", "carol", "dave", "erin"), logins);
+    }
+
+    @Test
+    void search_CombinedFilters_ReturnMatchingUsersWithRoles() {
+        UserSearchResponse admins = userSearchService.search(UserSearchRequest.builder().role(Role.RoleType.ADMIN).size(10).build());
+        assertEquals(List.of("alice", "erin"), admins.getUsers().stream().map(UserSummary::getLogin).toList());
+        assertEquals(List.of(Role.RoleType.ADMIN, Role.RoleType.USER), admins.getUsers().get(0).getRoles());
+        assertNull(admins.getNextCursor());
+
+        UserSearchResponse inactiveGoogle = userSearchService.search(UserSearchRequest.builder()
+                .provider(Provider.GOOGLE)
+                .active(false)
+                .size(10)
+                .build());
+        assertEquals(List.of("dave"), inactiveGoogle.getUsers().stream().map(UserSummary::getLogin).toList());
+        assertTrue(inactiveGoogle.getUsers().get(0).getRoles().isEmpty());
+    }
+
+    @Test
+    void searchPlans_UseIndexes() {
+        disableSeqScan();
+
+        assertIndexPlan(UserSearchRequest.builder().after("bob").build(), "users_pkey");
+        assertIndexPlan(UserSearchRequest.builder().provider(Provider.GOOGLE).after("alice").build(), "idx_users_provider_type_login");
+        assertIndexPlan(UserSearchRequest.builder().active(false).build(), "idx_users_inactive_login");
+        assertIndexPlan(UserSearchRequest.builder().role(Role.RoleType.ADMIN).build(),
+                "idx_user_roles_role_id_user_login", "uk_user_roles_user_login_role_id");
+    }
+
+    @Test
+    void userRolesIndexes_RoleIdCoveredByCompositeIndexOnly() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE tablename = 'user_roles' AND indexname LIKE 'idx_user_roles_role_id%'",
+                String.class);
+
+        assertEquals(List.of("idx_user_roles_role_id_user_login"), indexes);
+    }
+
+    @Test
+    void oauthLookupPlans_UseIndexes() {
+        disableSeqScan();
+
+        assertIndexPlan("SELECT * FROM users WHERE email = :value AND provider_type = 'GOOGLE'",
+                "alice@gmail.com", "uk_users_provider_type_email");
+        assertIndexPlan("SELECT * FROM users WHERE github_id = :value AND provider_type = 'GITHUB'",
+                "42", "uk_users_github_id");
+        assertIndexPlan("SELECT 1 FROM users WHERE email = :value AND provider_type = 'LOCAL' LIMIT 1",
+                "bob@mail.com", "uk_users_provider_type_email");
+    }
+
+    private void insertUser(String login, String email, Provider provider, boolean active, Role.RoleType... roles) {
+        jdbcTemplate.update("INSERT INTO users (login, password, email, provider_type, active) VALUES (?, NULL, ?, ?, ?)",
+                login, email, provider.name(), active);
+        for (Role.RoleType role : roles) {
+            jdbcTemplate.update("INSERT INTO user_roles (id, user_login, role_id) VALUES (nextval('user_roles_seq'), ?, ?)",
+                    login, role.name());
+        }
+    }
+
+    private void disableSeqScan() {
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE user_roles");
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    private void assertIndexPlan(UserSearchRequest request, String... indexes) {
+        UserSearchRepository.SearchQuery query = userSearchRepository.buildQuery(request, 51);
+        assertIndexPlan(query.sql(), query.parameters(), indexes);
+    }
+
+    private void assertIndexPlan(String sql, String value, String index) {
+        assertIndexPlan(sql, new MapSqlParameterSource("value", value), index);
+    }
+
+    /**
+     * План не содержит последовательного сканирования и использует один из индексов
+     */
+    private void assertIndexPlan(String sql, MapSqlParameterSource parameters, String... indexes) {
+        String plan = String.join("\n", namedParameterJdbcTemplate.queryForList("EXPLAIN " + sql, parameters, String.class));
+
+        assertFalse(plan.contains("Seq Scan"), plan);
+        assertTrue(plan.contains("Index Scan") || plan.contains("Index Only Scan") || plan.contains("Bitmap Index Scan"), plan);
+        assertTrue(Arrays.stream(indexes).anyMatch(plan::contains), plan);
+    }
+
+}
@@ -0,0 +1,121 @@
+package io.github.authmicroservice.repository;
+
+import io.github.authmicroservice.model.dto.UserExportRow;
+import io.github.authmicroservice.model.dto.UserPrincipalRow;
+import io.github.authmicroservice.model.dto.UserRoleAssignment;
+import io.github.authmicroservice.model.entity.RefreshToken;
+import io.github.authmicroservice.model.entity.RevokedToken;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.entity.User;
+import io.github.authmicroservice.model.entity.UserRole;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.query.QueryTypeMismatchException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Проверка JPQL запросов репозиториев по модели сущностей без подключения к БД:
+ * запрос должен разбираться Hibernate, а тип результата – совпадать с типом, который возвращает метод
+ */
+public class RepositoryQueriesTest {
+
+    private static StandardServiceRegistry registry;
+
+    private static SessionFactory sessionFactory;
+
+    private static Session session;
+
+    @BeforeAll
+    static void setUp() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect")
+                .applySetting("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClasses(User.class, Role.class, UserRole.class, RefreshToken.class, RevokedToken.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        session = sessionFactory.openSession();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        session.close();
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    static Stream<Method> queryMethods() {
+        return Stream.of(UserRepository.class, UserRoleRepository.class, RoleRepository.class,
+                        RefreshTokenRepository.class, RevokedTokenRepository.class)
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods()))
+                .filter(method -> method.isAnnotationPresent(Query.class) && !method.getAnnotation(Query.class).nativeQuery());
+    }
+
+    @ParameterizedTest
+    @MethodSource("queryMethods")
+    void query_IsValidForReturnType(Method method) {
+        String jpql = method.getAnnotation(Query.class).value();
+        if (method.isAnnotationPresent(Modifying.class)) {
+            assertDoesNotThrow(() -> session.createMutationQuery(jpql), method::getName);
+        } else {
+            assertDoesNotThrow(() -> session.createQuery(jpql, resultType(method)), method::getName);
+        }
+    }
+
+    @Test
+    void findPrincipal_ProjectsUserPrincipalRow() throws Exception {
+        assertProjection(UserRepository.class.getMethod("findPrincipal", String.class), UserPrincipalRow.class);
+    }
+
+    @Test
+    void streamExportRows_ProjectsUserExportRow() throws Exception {
+        assertProjection(UserRepository.class.getMethod("streamExportRows"), UserExportRow.class);
+    }
+
+    @Test
+    void findAssignmentsByUserLogins_ProjectsUserRoleAssignment() throws Exception {
+        assertProjection(UserRoleRepository.class.getMethod("findAssignmentsByUserLogins", Collection.class),
+                UserRoleAssignment.class);
+    }
+
+    private static void assertProjection(Method method, Class<?> projection) {
+        String jpql = method.getAnnotation(Query.class).value();
+
+        assertEquals(projection, resultType(method));
+        assertDoesNotThrow(() -> session.createQuery(jpql, projection));
+        assertThrows(QueryTypeMismatchException.class, () -> session.createQuery(jpql, User.class));
+    }
+
+    /**
+     * Тип элемента результата: для List, Optional и Stream – аргумент типа, иначе сам тип
+     */
+    private static Class<?> resultType(Method method) {
+        Type type = method.getGenericReturnType();
+        if (type instanceof ParameterizedType parameterized) {
+            type = parameterized.getActualTypeArguments()[0];
+        }
+        return (Class<?>) type;
+    }
+
+}
@@ -0,0 +1,64 @@
+package io.github.authmicroservice.security.auth;
+
+import io.github.authmicroservice.model.dto.UserPrincipal;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.security.encoder.CustomPasswordEncoder;
+import io.github.authmicroservice.security.encoder.PasswordHashingExecutor;
+import io.github.authmicroservice.service.CustomUserDetailsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CustomAuthenticationProviderTest {
+
+    private static final String DUMMY_HASH = "{pbkdf2-sha256}dummy";
+
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+
+    private final CustomPasswordEncoder passwordEncoder = mock(CustomPasswordEncoder.class);
+
+    private final PasswordHashingExecutor hashingExecutor = mock(PasswordHashingExecutor.class);
+
+    private CustomAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        when(passwordEncoder.encode(anyString())).thenReturn(DUMMY_HASH);
+        when(hashingExecutor.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        provider = new CustomAuthenticationProvider(userDetailsService, passwordEncoder, hashingExecutor);
+    }
+
+    @Test
+    void authenticate_UnknownLogin_HashesAgainstDummyPasswordAndRejects() {
+        when(userDetailsService.loadUserByUsername("ghost")).thenThrow(new UsernameNotFoundException("ghost"));
+
+        assertThrows(BadCredentialsException.class,
+                () -> provider.authenticate(new UsernamePasswordAuthenticationToken("ghost", "password")));
+
+        verify(passwordEncoder).matches("password", DUMMY_HASH);
+    }
+
+    @Test
+    void authenticate_UserWithoutPassword_HashesAgainstDummyPasswordAndRejects() {
+        when(userDetailsService.loadUserByUsername("oauth"))
+                .thenReturn(new UserPrincipal("oauth", null, "oauth@example.com", true, List.of(Role.RoleType.USER)));
+
+        assertThrows(BadCredentialsException.class,
+                () -> provider.authenticate(new UsernamePasswordAuthenticationToken("oauth", "password")));
+
+        verify(passwordEncoder).matches("password", DUMMY_HASH);
+    }
+
+}
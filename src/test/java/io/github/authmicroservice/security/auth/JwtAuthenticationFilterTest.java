@@ -0,0 +1,162 @@
+package io.github.authmicroservice.security.auth;
+
+import io.github.authmicroservice.model.dto.UserPrincipal;
+import io.github.authmicroservice.model.dto.VerifiedToken;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.service.JwtService;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JwtAuthenticationFilterTest {
+
+    private static final long CLAIMS_MAX_AGE = 900_000L;
+
+    private final JwtService jwtService = mock(JwtService.class);
+
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userDetailsService);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_StatelessFreshToken_AuthenticatesFromClaimsWithoutDatabase() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        ReflectionTestUtils.setField(filter, "claimsMaxAge", CLAIMS_MAX_AGE);
+        when(jwtService.verify("token")).thenReturn(token(Instant.now().minusSeconds(60)));
+
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserPrincipal principal = assertInstanceOf(UserPrincipal.class, authentication.getPrincipal());
+        assertEquals("testuser", principal.getUsername());
+        assertEquals(Set.of(Role.RoleType.ADMIN), principal.getRoles());
+        assertEquals("testuser", authentication.getName());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), List.copyOf(authentication.getAuthorities()));
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void doFilter_StatelessTokenWithNonRoleAuthority_KeepsAllAuthorities() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        ReflectionTestUtils.setField(filter, "claimsMaxAge", CLAIMS_MAX_AGE);
+        when(jwtService.verify("token")).thenReturn(new VerifiedToken("jti-1", "testuser", List.of("ROLE_USER", "SCOPE_read"),
+                Instant.now().minusSeconds(60), Instant.now().plusSeconds(3600)));
+
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserPrincipal principal = assertInstanceOf(UserPrincipal.class, authentication.getPrincipal());
+        assertEquals(Set.of(Role.RoleType.USER), principal.getRoles());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("SCOPE_read")),
+                List.copyOf(authentication.getAuthorities()));
+    }
+
+    @Test
+    void doFilter_StatelessTokenOlderThanClaimsMaxAge_ReloadsUserFromDatabase() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        ReflectionTestUtils.setField(filter, "claimsMaxAge", CLAIMS_MAX_AGE);
+        when(jwtService.verify("token")).thenReturn(token(Instant.now().minusMillis(CLAIMS_MAX_AGE + 1000)));
+        when(userDetailsService.loadUserByUsername("testuser"))
+                .thenReturn(new User("testuser", "password", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertInstanceOf(User.class, authentication.getPrincipal());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER")), List.copyOf(authentication.getAuthorities()));
+    }
+
+    @Test
+    void doFilter_StatelessTokenWithoutIssuedAt_ReloadsUserFromDatabase() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        ReflectionTestUtils.setField(filter, "claimsMaxAge", CLAIMS_MAX_AGE);
+        when(jwtService.verify("token")).thenReturn(token(null));
+        when(userDetailsService.loadUserByUsername("testuser"))
+                .thenReturn(new User("testuser", "password", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(userDetailsService).loadUserByUsername("testuser");
+    }
+
+    @Test
+    void doFilter_StatefulMode_AlwaysLoadsUser() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", false);
+        ReflectionTestUtils.setField(filter, "claimsMaxAge", CLAIMS_MAX_AGE);
+        when(jwtService.verify("token")).thenReturn(token(Instant.now()));
+        when(userDetailsService.loadUserByUsername("testuser"))
+                .thenReturn(new User("testuser", "password", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService).loadUserByUsername("testuser");
+    }
+
+    @Test
+    void doFilter_RejectedToken_LeavesRequestUnauthenticated() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        ReflectionTestUtils.setField(filter, "claimsMaxAge", CLAIMS_MAX_AGE);
+        when(jwtService.verify("token")).thenThrow(new JwtException("JWT token has been revoked"));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_ValidTokenOfDisabledUser_LeavesRequestUnauthenticated() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", false);
+        ReflectionTestUtils.setField(filter, "claimsMaxAge", CLAIMS_MAX_AGE);
+        when(jwtService.verify("token")).thenReturn(token(Instant.now()));
+        when(userDetailsService.loadUserByUsername("testuser")).thenThrow(new UsernameNotFoundException("User is disabled"));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        return request;
+    }
+
+    private static VerifiedToken token(Instant issuedAt) {
+        return new VerifiedToken("jti-1", "testuser", List.of("ROLE_ADMIN"), issuedAt, Instant.now().plusSeconds(3600));
+    }
+
+}
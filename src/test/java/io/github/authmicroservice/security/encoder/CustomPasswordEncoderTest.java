@@ -0,0 +1,115 @@
+package io.github.authmicroservice.security.encoder;
+
+import io.github.authmicroservice.util.SaltGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CustomPasswordEncoderTest {
+
+    private static final String LOGIN = "testuser";
+    private static final String EMAIL = "test@example.com";
+    private static final String PASSWORD = "password123";
+    private static final String GLOBAL_SALT = "testGlobalSalt";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SaltGenerator saltGenerator = new SaltGenerator(GLOBAL_SALT, true);
+
+    private final CustomPasswordEncoder passwordEncoder = new CustomPasswordEncoder(1000, saltGenerator, meterRegistry);
+
+    @Test
+    void encode_UsesPrefixedFormatWithRandomSalt() {
+        String first = passwordEncoder.encode(PASSWORD, LOGIN, EMAIL);
+        String second = passwordEncoder.encode(PASSWORD, LOGIN, EMAIL);
+
+        assertTrue(first.startsWith("{pbkdf2-sha256}1000$"));
+        assertNotEquals(first, second);
+        assertTrue(passwordEncoder.matches(PASSWORD, first, LOGIN, EMAIL));
+        assertFalse(passwordEncoder.matches("wrong", first, LOGIN, EMAIL));
+        assertFalse(passwordEncoder.upgradeEncoding(first));
+    }
+
+    @Test
+    void matches_LegacyHash_MatchesAndNeedsUpgrade() throws Exception {
+        String legacy = legacyHash(PASSWORD, GLOBAL_SALT);
+
+        assertTrue(passwordEncoder.matches(PASSWORD, legacy, LOGIN, EMAIL));
+        assertFalse(passwordEncoder.matches("wrong", legacy, LOGIN, EMAIL));
+        assertTrue(passwordEncoder.upgradeEncoding(legacy));
+        assertEquals(0, meterRegistry.counter("password.legacy.null-salt.matches").count());
+    }
+
+    @Test
+    void matches_LegacyHashWithNullGlobalSalt_MatchesAndIsCounted() throws Exception {
+        String legacy = legacyHash(PASSWORD, "null");
+
+        assertTrue(passwordEncoder.matches(PASSWORD, legacy, LOGIN, EMAIL));
+        assertFalse(passwordEncoder.matches("wrong", legacy, LOGIN, EMAIL));
+        assertEquals(1, meterRegistry.counter("password.legacy.null-salt.matches").count());
+
+        CustomPasswordEncoder strict = new CustomPasswordEncoder(1000, new SaltGenerator(GLOBAL_SALT, false), meterRegistry);
+        assertFalse(strict.matches(PASSWORD, legacy, LOGIN, EMAIL));
+    }
+
+    @Test
+    void generateUniqueSalt_SameAsStringConcatenation() throws Exception {
+        String[][] inputs = {{LOGIN, EMAIL}, {"пользователь", "почта@пример.рф"}, {"emoji\uD83D\uDE00", "lone\uD800"}, {"oauth", null}};
+        for (String[] input : inputs) {
+            assertEquals(referenceSalt(GLOBAL_SALT, input[0], input[1]), saltGenerator.generateUniqueSalt(input[0], input[1]));
+            assertEquals(referenceSalt("null", input[0], input[1]), saltGenerator.generateNullSalt(input[0], input[1]));
+        }
+        String longLogin = "x".repeat(1000);
+        assertEquals(referenceSalt(GLOBAL_SALT, longLogin, EMAIL), saltGenerator.generateUniqueSalt(longLogin, EMAIL));
+    }
+
+    @Test
+    void upgradeEncoding_FewerIterations_NeedsUpgrade() {
+        String weak = new CustomPasswordEncoder(500, saltGenerator, meterRegistry).encode(PASSWORD);
+
+        assertTrue(passwordEncoder.matches(PASSWORD, weak, LOGIN, EMAIL));
+        assertTrue(passwordEncoder.upgradeEncoding(weak));
+    }
+
+    @Test
+    void matches_NullOrMalformedHash_ReturnsFalse() {
+        assertFalse(passwordEncoder.matches(PASSWORD, null, LOGIN, EMAIL));
+        assertFalse(passwordEncoder.matches(PASSWORD, "{pbkdf2-sha256}1000$broken", LOGIN, EMAIL));
+    }
+
+    @Test
+    void isSupported_AcceptsOnlyWellFormedHashes() throws Exception {
+        assertTrue(passwordEncoder.isSupported(passwordEncoder.encode(PASSWORD)));
+        assertTrue(passwordEncoder.isSupported(legacyHash(PASSWORD, GLOBAL_SALT)));
+        assertFalse(passwordEncoder.isSupported(null));
+        assertFalse(passwordEncoder.isSupported(PASSWORD));
+        assertFalse(passwordEncoder.isSupported("{pbkdf2-sha256}1000$broken"));
+        assertFalse(passwordEncoder.isSupported("{pbkdf2-sha256}0$c2FsdA$" + "A".repeat(43)));
+    }
+
+    @Test
+    void calibrated_RespectsMinimumIterations() {
+        assertEquals(50000, CustomPasswordEncoder.calibrated(0, 50000, saltGenerator, meterRegistry).getIterations());
+    }
+
+    private static String legacyHash(String password, String globalSalt) throws Exception {
+        String salt = referenceSalt(globalSalt, LOGIN, EMAIL);
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest((password + salt).getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().encodeToString(hash);
+    }
+
+    private static String referenceSalt(String globalSalt, String login, String email) throws Exception {
+        String combined = globalSalt + ":" + login + ":" + email;
+        byte[] saltBytes = MessageDigest.getInstance("SHA-256").digest(combined.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(saltBytes).substring(0, 32);
+    }
+
+}
@@ -0,0 +1,270 @@
+package io.github.authmicroservice.security.key;
+
+import io.jsonwebtoken.JwtParserBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SigningKeyRingTest {
+
+    private static final String SECRET = "mySecretKeyForJWTTokenGenerationAndValidation1234567890";
+
+    private static final Duration PERIOD = Duration.ofDays(1);
+
+    private static final Duration GRACE = Duration.ofHours(1);
+
+    /**
+     * 10:00 внутри эпохи HS256 ключей с периодом в сутки
+     */
+    private static final Instant START = Instant.parse("2026-03-10T10:00:00Z");
+
+    private static final long EPOCH = START.toEpochMilli() / PERIOD.toMillis();
+
+    private static final Set<String> PRIVATE_JWK_MEMBERS = Set.of("d", "p", "q", "dp", "dq", "qi", "oth", "k");
+
+    private final MutableClock clock = new MutableClock(START);
+
+    @Test
+    void findVerificationKey_NextEpochKey_AcceptedBeforeRotation() {
+        SigningKeyRing ring = hmacRing(clock);
+        MutableClock aheadClock = new MutableClock(START.plus(PERIOD));
+        SigningKeyRing replicaAhead = hmacRing(aheadClock);
+
+        SigningKey nextKey = replicaAhead.getActiveKey();
+        String token = Jwts.builder()
+                .header().keyId(nextKey.keyId()).and()
+                .subject("testuser")
+                .signWith((SecretKey) nextKey.signingKey(), Jwts.SIG.HS256)
+                .compact();
+
+        assertEquals("hs-" + EPOCH, ring.getActiveKey().keyId());
+        assertEquals("hs-" + (EPOCH + 1), nextKey.keyId());
+        assertEquals("testuser", parse(token, ring.findVerificationKey(nextKey.keyId())));
+    }
+
+    @Test
+    void findVerificationKey_PreviousEpochKey_AcceptedOnlyWithinGracePeriod() {
+        SigningKeyRing ring = hmacRing(clock);
+        String previousKeyId = ring.getActiveKey().keyId();
+        Instant nextEpochStart = Instant.ofEpochMilli((EPOCH + 1) * PERIOD.toMillis());
+
+        clock.set(nextEpochStart.plus(Duration.ofMinutes(30)));
+        ring.rotate();
+
+        assertEquals("hs-" + (EPOCH + 1), ring.getActiveKey().keyId());
+        assertNotNull(ring.findVerificationKey(previousKeyId));
+
+        clock.set(nextEpochStart.plus(GRACE));
+        assertNull(ring.findVerificationKey(previousKeyId));
+
+        ring.rotate();
+        assertNull(ring.findVerificationKey(previousKeyId));
+        assertNotNull(ring.findVerificationKey("hs-" + (EPOCH + 1)));
+    }
+
+    @Test
+    void findVerificationKey_LegacyKeyWithoutKid_ExpiresGracePeriodAfterStartup() {
+        SigningKeyRing ring = hmacRing(clock);
+        String legacyToken = Jwts.builder()
+                .subject("legacy")
+                .signWith((SecretKey) ring.findVerificationKey(null), Jwts.SIG.HS256)
+                .compact();
+
+        clock.set(START.plus(GRACE).minusSeconds(1));
+        ring.rotate();
+        assertEquals("legacy", parse(legacyToken, ring.findVerificationKey(null)));
+
+        clock.set(START.plus(GRACE));
+        assertNull(ring.findVerificationKey(null));
+    }
+
+    @Test
+    void findVerificationKey_RotationDisabled_LegacyKeyNeverExpires() {
+        SigningKeyRing ring = newRing("HS256", Duration.ZERO, clock);
+
+        assertNull(ring.getActiveKey().keyId());
+        clock.set(START.plus(Duration.ofDays(365)));
+        assertNotNull(ring.findVerificationKey(null));
+    }
+
+    @Test
+    void init_TokenLifetimeLongerThanGracePeriod_FailsStartup() {
+        SigningKeyRing ring = configuredRing("HS256", PERIOD, clock, null, List.of());
+        ReflectionTestUtils.setField(ring, "jwtExpiration", GRACE.plusMinutes(1).toMillis());
+
+        assertThrows(IllegalStateException.class, () -> ReflectionTestUtils.invokeMethod(ring, "init"));
+    }
+
+    @Test
+    void init_RotationDisabled_AcceptsTokenLifetimeLongerThanGracePeriod() {
+        SigningKeyRing ring = configuredRing("HS256", Duration.ZERO, clock, null, List.of());
+        ReflectionTestUtils.setField(ring, "jwtExpiration", GRACE.plusMinutes(1).toMillis());
+
+        assertDoesNotThrow(() -> ReflectionTestUtils.invokeMethod(ring, "init"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"RS256", "EdDSA"})
+    void findVerificationKey_RetiredPublicKey_StillVerifies(String algorithm) {
+        KeyPair current = keyPair(algorithm);
+        KeyPair retired = keyPair(algorithm);
+        SigningKeyRing ring = newRing(algorithm, PERIOD, clock, current, List.of(retired.getPublic()));
+
+        String retiredKeyId = Jwks.builder().key(retired.getPublic()).idFromThumbprint().build().getId();
+        String token = Jwts.builder()
+                .header().keyId(retiredKeyId).and()
+                .subject("testuser")
+                .signWith(retired.getPrivate())
+                .compact();
+
+        assertNotEquals(retiredKeyId, ring.getActiveKey().keyId());
+        assertEquals("testuser", parse(token, ring.findVerificationKey(retiredKeyId)));
+
+        clock.set(START.plus(Duration.ofDays(30)));
+        ring.rotate();
+        assertNotNull(ring.findVerificationKey(retiredKeyId));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"RS256", "EdDSA"})
+    void getJwkSet_ConfiguredAndGeneratedKeys_ContainNoPrivateMaterial(String algorithm) {
+        SigningKeyRing configured = newRing(algorithm, PERIOD, clock, keyPair(algorithm), List.of(keyPair(algorithm).getPublic()));
+        SigningKeyRing generated = configuredRing(algorithm, PERIOD, clock, null, List.of());
+        ReflectionTestUtils.setField(generated, "allowEphemeralKeys", true);
+        ReflectionTestUtils.invokeMethod(generated, "init");
+
+        assertPublicOnly(configured.getJwkSet(), 2);
+        assertPublicOnly(generated.getJwkSet(), 2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"RS256", "EdDSA"})
+    void init_KeyPairMissingWithoutEphemeralOptIn_FailsStartup(String algorithm) {
+        SigningKeyRing ring = configuredRing(algorithm, PERIOD, clock, null, List.of());
+
+        assertThrows(IllegalStateException.class, () -> ReflectionTestUtils.invokeMethod(ring, "init"));
+    }
+
+    @Test
+    void getJwkSet_Hs256_IsEmpty() {
+        assertEquals(List.of(), hmacRing(clock).getJwkSet().get("keys"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void assertPublicOnly(Map<String, Object> jwkSet, int expectedKeys) {
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) jwkSet.get("keys");
+        assertEquals(expectedKeys, keys.size());
+        for (Map<String, Object> jwk : keys) {
+            assertTrue(jwk.containsKey("kid"));
+            assertFalse(jwk.keySet().stream().anyMatch(PRIVATE_JWK_MEMBERS::contains), jwk.keySet().toString());
+        }
+    }
+
+    private static String parse(String token, Key key) {
+        assertNotNull(key);
+        JwtParserBuilder parser = Jwts.parser();
+        if (key instanceof SecretKey secretKey) {
+            parser.verifyWith(secretKey);
+        } else {
+            parser.verifyWith((PublicKey) key);
+        }
+        return parser.build()
+                .parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
+    }
+
+    private static SigningKeyRing hmacRing(Clock clock) {
+        return newRing("HS256", PERIOD, clock);
+    }
+
+    private static SigningKeyRing newRing(String algorithm, Duration period, Clock clock) {
+        return newRing(algorithm, period, clock, null, List.of());
+    }
+
+    private static SigningKeyRing newRing(String algorithm, Duration period, Clock clock,
+                                          KeyPair keyPair, List<PublicKey> retiredKeys) {
+        SigningKeyRing ring = configuredRing(algorithm, period, clock, keyPair, retiredKeys);
+        ReflectionTestUtils.invokeMethod(ring, "init");
+        return ring;
+    }
+
+    private static SigningKeyRing configuredRing(String algorithm, Duration period, Clock clock,
+                                                 KeyPair keyPair, List<PublicKey> retiredKeys) {
+        SigningKeyRing ring = new SigningKeyRing();
+        ReflectionTestUtils.setField(ring, "algorithmName", algorithm);
+        ReflectionTestUtils.setField(ring, "secretKey", SECRET);
+        ReflectionTestUtils.setField(ring, "privateKeyValue", keyPair == null ? "" : pem(keyPair.getPrivate().getEncoded()));
+        ReflectionTestUtils.setField(ring, "publicKeyValue", keyPair == null ? "" : pem(keyPair.getPublic().getEncoded()));
+        ReflectionTestUtils.setField(ring, "retiredPublicKeys", retiredKeys.stream().map(key -> pem(key.getEncoded())).toList());
+        ReflectionTestUtils.setField(ring, "rotationPeriod", period);
+        ReflectionTestUtils.setField(ring, "gracePeriod", GRACE);
+        ReflectionTestUtils.setField(ring, "jwtExpiration", GRACE.toMillis());
+        ReflectionTestUtils.setField(ring, "clock", clock);
+        return ring;
+    }
+
+    private static KeyPair keyPair(String algorithm) {
+        return "RS256".equals(algorithm) ? Jwts.SIG.RS256.keyPair().build() : Jwks.CRV.Ed25519.keyPair().build();
+    }
+
+    private static String pem(byte[] encoded) {
+        return "-----BEGIN KEY-----\n" + Base64.getMimeEncoder().encodeToString(encoded) + "\n-----END KEY-----";
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.SignupRequest;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.entity.User;
+import io.github.authmicroservice.model.entity.UserRole;
+import io.github.authmicroservice.model.enums.Provider;
+import io.github.authmicroservice.repository.UserRepository;
+import io.github.authmicroservice.repository.UserRoleRepository;
+import io.github.authmicroservice.security.encoder.CustomPasswordEncoder;
+import io.github.authmicroservice.security.encoder.PasswordHashingExecutor;
+import jakarta.persistence.EntityExistsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AuthServiceImplTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final CustomPasswordEncoder passwordEncoder = mock(CustomPasswordEncoder.class);
+
+    private final RoleRegistry roleRegistry = mock(RoleRegistry.class);
+
+    private final UserRoleRepository userRoleRepository = mock(UserRoleRepository.class);
+
+    private final PasswordHashingExecutor hashingExecutor = mock(PasswordHashingExecutor.class);
+
+    private final RoleMembershipService roleMembershipService = mock(RoleMembershipService.class);
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final AuthServiceImpl authService = new AuthServiceImpl(userRepository, passwordEncoder, roleRegistry,
+            userRoleRepository, mock(JwtService.class), mock(AuthenticationManager.class), mock(RefreshTokenService.class),
+            hashingExecutor, roleMembershipService, new TransactionTemplate(transactionManager));
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(hashingExecutor.execute(any(Supplier.class))).thenAnswer(invocation -> ((Supplier<String>) invocation.getArgument(0)).get());
+        when(passwordEncoder.encode("password123", "newuser", "new@mail.com")).thenReturn("hash");
+        when(roleRegistry.findReference(Role.RoleType.USER)).thenReturn(Optional.of(Role.builder().id(Role.RoleType.USER).build()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void signup_HashesPasswordBeforeOpeningTransaction() {
+        authService.signup(request());
+
+        InOrder order = inOrder(hashingExecutor, transactionManager, userRepository, userRoleRepository);
+        order.verify(hashingExecutor).execute(any(Supplier.class));
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(userRepository).existsById("newuser");
+        order.verify(userRepository).save(any(User.class));
+        order.verify(userRoleRepository).save(any(UserRole.class));
+        order.verify(transactionManager).commit(any());
+
+        ArgumentCaptor<User> user = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(user.capture());
+        assertEquals("hash", user.getValue().getPassword());
+        assertEquals(Provider.LOCAL, user.getValue().getProvider());
+        verify(roleMembershipService).refresh("newuser");
+    }
+
+    @Test
+    void signup_ExistingLogin_RolledBackWithoutInsert() {
+        when(userRepository.existsById("newuser")).thenReturn(true);
+
+        assertThrows(EntityExistsException.class, () -> authService.signup(request()));
+
+        verify(userRepository, never()).save(any());
+        verify(transactionManager).rollback(any());
+    }
+
+    private static SignupRequest request() {
+        SignupRequest request = new SignupRequest();
+        request.setLogin("newuser");
+        request.setEmail("new@mail.com");
+        request.setPassword("password123");
+        return request;
+    }
+
+}
@@ -0,0 +1,179 @@
+package io.github.authmicroservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.authmicroservice.model.dto.BulkRoleAssignmentResponse;
+import io.github.authmicroservice.model.dto.UserRoleAssignment;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.entity.User;
+import io.github.authmicroservice.model.entity.UserRole;
+import io.github.authmicroservice.model.enums.BulkRoleMode;
+import io.github.authmicroservice.repository.UserRepository;
+import io.github.authmicroservice.repository.UserRoleRepository;
+import io.github.authmicroservice.util.RoleMask;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BulkRoleAssignmentServiceImplTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final UserRoleRepository userRoleRepository = mock(UserRoleRepository.class);
+
+    private final RoleRegistry roleRegistry = mock(RoleRegistry.class);
+
+    private final UserPrincipalCache principalCache = mock(UserPrincipalCache.class);
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+
+    private final BulkRoleAssignmentServiceImpl service = new BulkRoleAssignmentServiceImpl(
+            userRepository,
+            userRoleRepository,
+            roleRegistry,
+            principalCache,
+            mock(RoleMembershipService.class),
+            new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            entityManager,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            new ObjectMapper(),
+            2,
+            100);
+
+    @BeforeEach
+    void setUp() {
+        Map<Role.RoleType, Role> roles = new EnumMap<>(Role.RoleType.class);
+        Arrays.stream(Role.RoleType.values()).forEach(type -> roles.put(type, Role.builder().id(type).build()));
+        when(roleRegistry.getRoles()).thenReturn(roles);
+        when(roleRegistry.findReference(any())).thenAnswer(invocation ->
+                Optional.of(Role.builder().id(invocation.getArgument(0)).build()));
+        when(userRepository.getReferenceById(anyString())).thenAnswer(invocation ->
+                User.builder().login(invocation.getArgument(0)).build());
+        when(userRepository.findExistingLogins(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<String>>getArgument(0).stream()
+                        .filter(login -> !login.startsWith("unknown"))
+                        .toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void assignRoles_ReplaceMode_DiffsAgainstCurrentRolesAndReportsBadRows() throws Exception {
+        when(userRoleRepository.findAssignmentsByUserLogins(anyCollection())).thenReturn(List.of(
+                new UserRoleAssignment(10L, "alice", Role.RoleType.USER),
+                new UserRoleAssignment(11L, "alice", Role.RoleType.ADMIN),
+                new UserRoleAssignment(12L, "bob", Role.RoleType.USER)));
+
+        BulkRoleAssignmentResponse response = service.assignRoles(ndjson(
+                "{\"login\":\"alice\",\"roles\":[\"USER\",\"SUPERUSER\"]}",
+                "{\"login\":\"bob\",\"roles\":[\"USER\"]}",
+                "",
+                "not json",
+                "{\"login\":\"unknown\",\"roles\":[\"USER\"]}",
+                "{\"login\":\"carol\",\"roles\":[]}"), BulkRoleMode.REPLACE);
+
+        assertEquals(5, response.getProcessed());
+        assertEquals(1, response.getChanged());
+        assertEquals(1, response.getUnchanged());
+        assertEquals(3, response.getFailed());
+        assertEquals(List.of(4L, 5L, 6L), response.getErrors().stream().map(error -> error.getLine()).toList());
+
+        verify(userRoleRepository).deleteAllByIdInBatch(List.of(11L));
+        ArgumentCaptor<List<UserRole>> saved = ArgumentCaptor.forClass(List.class);
+        verify(userRoleRepository, times(2)).saveAll(saved.capture());
+        assertEquals(1, saved.getAllValues().get(0).size());
+        assertEquals(Role.RoleType.SUPERUSER, saved.getAllValues().get(0).get(0).getRole().getId());
+        verify(userRepository).updateRoleMask(List.of("alice"),
+                RoleMask.fromRoleTypes(List.of(Role.RoleType.USER, Role.RoleType.SUPERUSER)));
+        verify(principalCache).evict("alice");
+        verify(principalCache, never()).evict("bob");
+    }
+
+    @Test
+    void assignRoles_FailedChunk_RetriesRowsOneByOne() throws Exception {
+        when(userRoleRepository.findAssignmentsByUserLogins(anyCollection())).thenReturn(List.of());
+        when(userRoleRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<UserRole> roles = invocation.getArgument(0);
+            if (roles.stream().anyMatch(role -> role.getUser().getLogin().equals("broken"))) {
+                throw new DataIntegrityViolationException("constraint violated");
+            }
+            return roles;
+        });
+
+        BulkRoleAssignmentResponse response = service.assignRoles(ndjson(
+                "{\"login\":\"alice\",\"roles\":[\"USER\"]}",
+                "{\"login\":\"broken\",\"roles\":[\"USER\"]}"), BulkRoleMode.ADD);
+
+        assertEquals(1, response.getChanged());
+        assertEquals(1, response.getFailed());
+        assertEquals("broken", response.getErrors().get(0).getLogin());
+        verify(userRoleRepository, never()).deleteAllByIdInBatch(any());
+        verify(principalCache).evict("alice");
+    }
+
+    @Test
+    void assignRoles_AddModeDuplicateLogin_MergesRolesAndCountsLoginOnce() throws Exception {
+        when(userRoleRepository.findAssignmentsByUserLogins(anyCollection())).thenReturn(List.of(
+                new UserRoleAssignment(10L, "alice", Role.RoleType.USER)));
+
+        BulkRoleAssignmentResponse response = service.assignRoles(ndjson(
+                "{\"login\":\"alice\",\"roles\":[\"USER\"]}",
+                "{\"login\":\"alice\",\"roles\":[\"ADMIN\"]}"), BulkRoleMode.ADD);
+
+        assertEquals(2, response.getProcessed());
+        assertEquals(1, response.getChanged());
+        assertEquals(0, response.getUnchanged());
+        verify(userRepository).updateRoleMask(List.of("alice"),
+                RoleMask.fromRoleTypes(List.of(Role.RoleType.USER, Role.RoleType.ADMIN)));
+    }
+
+    @Test
+    void assignRoles_SeveralChunks_ClearsPersistenceContextAfterEachChunk() throws Exception {
+        when(userRoleRepository.findAssignmentsByUserLogins(anyCollection())).thenReturn(List.of());
+
+        service.assignRoles(ndjson(
+                "{\"login\":\"alice\",\"roles\":[\"USER\"]}",
+                "{\"login\":\"bob\",\"roles\":[\"USER\"]}",
+                "{\"login\":\"carol\",\"roles\":[\"USER\"]}"), BulkRoleMode.ADD);
+
+        InOrder order = inOrder(userRoleRepository, entityManager);
+        order.verify(userRoleRepository).saveAll(anyList());
+        order.verify(entityManager).flush();
+        order.verify(entityManager).clear();
+        order.verify(userRoleRepository).findAssignmentsByUserLogins(anyCollection());
+        order.verify(userRoleRepository).saveAll(anyList());
+        order.verify(entityManager).flush();
+        order.verify(entityManager).clear();
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,264 @@
+package io.github.authmicroservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CacheInvalidationBusTest {
+
+    private static final String JDBC_URL = "jdbc:cache-invalidation-bus-test:";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final JdbcConnectionDetails connectionDetails = mock(JdbcConnectionDetails.class);
+
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<CacheInvalidationListener> listenerProvider = mock(ObjectProvider.class);
+
+    private final CacheInvalidationBus bus = new CacheInvalidationBus(jdbcTemplate, connectionDetails, listenerProvider);
+
+    /**
+     * Наборы payload, переданные в pg_notify, по одному на каждый запрос
+     */
+    private final List<List<Object>> sent = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws SQLException {
+        ReflectionTestUtils.setField(bus, "enabled", true);
+        ReflectionTestUtils.setField(bus, "pollInterval", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(bus, "reconnectDelay", Duration.ofMillis(10));
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        when(statement.getConnection()).thenReturn(connection);
+        when(connection.createArrayOf(eq("text"), any(Object[].class))).thenAnswer(invocation -> {
+            sent.add(List.of((Object[]) invocation.getArgument(1)));
+            return mock(Array.class);
+        });
+        when(jdbcTemplate.execute(anyString(), any(PreparedStatementCallback.class))).thenAnswer(invocation ->
+                ((PreparedStatementCallback<Boolean>) invocation.getArgument(1)).doInPreparedStatement(statement));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.stop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        if (TransactionSynchronizationManager.hasResource(bus)) {
+            TransactionSynchronizationManager.unbindResource(bus);
+        }
+    }
+
+    @Test
+    void publish_OutsideTransaction_SentImmediately() {
+        bus.publish("user", "alice");
+
+        assertEquals(List.of(List.of(nodeId() + ":user:alice")), sent);
+    }
+
+    @Test
+    void publish_InsideTransaction_SentOnceBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        bus.publish("user", "alice");
+        bus.publish("role-membership", "alice");
+        bus.publish("user", "alice");
+        assertTrue(sent.isEmpty());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertEquals(List.of(List.of(nodeId() + ":user:alice", nodeId() + ":role-membership:alice")), sent);
+        assertFalse(TransactionSynchronizationManager.hasResource(bus));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publish_InsideRolledBackTransaction_NotSent() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        bus.publish("user", "alice");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(jdbcTemplate, never()).execute(anyString(), any(PreparedStatementCallback.class));
+        assertFalse(TransactionSynchronizationManager.hasResource(bus));
+    }
+
+    @Test
+    void publish_Disabled_NothingSent() {
+        ReflectionTestUtils.setField(bus, "enabled", false);
+
+        bus.publish("user", "alice");
+
+        assertTrue(sent.isEmpty());
+    }
+
+    /**
+     * Первое соединение доставляет сообщения и обрывается; после переподключения
+     * каждый слушатель снова сбрасывает кэш целиком, так как сообщения за время разрыва потеряны.
+     * Свои сообщения получает только слушатель, который их принимает (mock по умолчанию возвращает false)
+     */
+    @Test
+    void listen_EveryConnect_FlushesAllListenersAndDispatchesByRegion() throws Exception {
+        CountDownLatch flushes = new CountDownLatch(4);
+        CacheInvalidationListener users = listener("user", flushes);
+        CacheInvalidationListener tokens = listener("revoked-token", flushes);
+        when(listenerProvider.orderedStream()).thenReturn(Stream.of(users, tokens));
+        when(connectionDetails.getJdbcUrl()).thenReturn(JDBC_URL);
+
+        when(users.acceptsOwnMessages()).thenReturn(true);
+        PGNotification[] notifications = {
+                notification("other-node:user:alice"),
+                notification("other-node:revoked-token:jti-1"),
+                notification(nodeId() + ":user:bob"),
+                notification(nodeId() + ":revoked-token:jti-2")};
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(pgConnection.getNotifications(anyInt()))
+                .thenReturn(notifications)
+                .thenThrow(new SQLException("Connection reset"))
+                .thenAnswer(invocation -> {
+                    try {
+                        Thread.sleep(invocation.<Integer>getArgument(0));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                });
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(connection.isValid(anyInt())).thenReturn(true);
+
+        TestDriver driver = new TestDriver(connection);
+        DriverManager.registerDriver(driver);
+        try {
+            bus.start();
+
+            assertTrue(flushes.await(5, TimeUnit.SECONDS));
+            verify(users).invalidate("alice");
+            verify(users).invalidate("bob");
+            verify(tokens).invalidate("jti-1");
+            verify(tokens, never()).invalidate("jti-2");
+            assertEquals(2, driver.connects);
+        } finally {
+            bus.stop();
+            DriverManager.deregisterDriver(driver);
+        }
+    }
+
+    private String nodeId() {
+        return (String) ReflectionTestUtils.getField(bus, "nodeId");
+    }
+
+    private static PGNotification notification(String payload) {
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getParameter()).thenReturn(payload);
+        return notification;
+    }
+
+    private static CacheInvalidationListener listener(String region, CountDownLatch flushes) {
+        CacheInvalidationListener listener = mock(CacheInvalidationListener.class);
+        when(listener.region()).thenReturn(region);
+        doAnswer(invocation -> {
+            flushes.countDown();
+            return null;
+        }).when(listener).invalidateAll();
+        return listener;
+    }
+
+    private static final class TestDriver implements Driver {
+
+        private final Connection connection;
+
+        private volatile int connects;
+
+        TestDriver(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            connects++;
+            return connection;
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith(JDBC_URL);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+
+    }
+
+}
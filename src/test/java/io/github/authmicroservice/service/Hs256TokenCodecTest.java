@@ -0,0 +1,132 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.VerifiedToken;
+import io.github.authmicroservice.security.key.SigningKey;
+import io.github.authmicroservice.security.key.SigningKeyRing;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class Hs256TokenCodecTest {
+
+    private static final long ISSUED_AT = Instant.now().getEpochSecond();
+    private static final long EXPIRATION = ISSUED_AT + 3600;
+
+    @Mock
+    private SigningKeyRing keyRing;
+
+    private SecretKey key;
+
+    private Hs256TokenCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        key = Jwts.SIG.HS256.key().build();
+        when(keyRing.findVerificationKey("hs-1")).thenReturn(key);
+        when(keyRing.findVerificationKey(null)).thenReturn(key);
+        codec = new Hs256TokenCodec(keyRing);
+    }
+
+    @Test
+    void sign_WithKeyId_MatchesJjwt() {
+        String token = codec.sign(signingKey("hs-1"), "jti-1", "testuser", 129, ISSUED_AT, EXPIRATION);
+
+        assertEquals(jjwtToken("hs-1", "testuser", EXPIRATION), token);
+    }
+
+    @Test
+    void sign_WithoutKeyId_MatchesJjwt() {
+        String token = codec.sign(signingKey(null), "jti-1", "testuser", 129, ISSUED_AT, EXPIRATION);
+
+        assertEquals(jjwtToken(null, "testuser", EXPIRATION), token);
+    }
+
+    @Test
+    void sign_SubjectNeedsEscaping_ReturnsNull() {
+        assertNull(codec.sign(signingKey("hs-1"), "jti-1", "user\"name", 1, ISSUED_AT, EXPIRATION));
+        assertNull(codec.sign(signingKey("hs-1"), "jti-1", "пользователь", 1, ISSUED_AT, EXPIRATION));
+    }
+
+    @Test
+    void verify_JjwtToken_ReturnsClaims() {
+        VerifiedToken token = codec.verify(jjwtToken("hs-1", "testuser", EXPIRATION));
+
+        assertEquals("jti-1", token.getJti());
+        assertEquals("testuser", token.getSubject());
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), token.getRoles());
+        assertEquals(Instant.ofEpochSecond(EXPIRATION), token.getExpiration());
+    }
+
+    @Test
+    void verify_TamperedSignature_Throws() {
+        String token = jjwtToken("hs-1", "testuser", EXPIRATION);
+        char last = token.charAt(token.length() - 2);
+        String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+
+        assertThrows(SignatureException.class, () -> codec.verify(tampered));
+    }
+
+    @Test
+    void verify_Expired_Throws() {
+        String token = jjwtToken("hs-1", "testuser", ISSUED_AT - 10);
+
+        assertThrows(ExpiredJwtException.class, () -> codec.verify(token));
+    }
+
+    @Test
+    void verify_RolesListClaim_ReturnsNull() {
+        String token = Jwts.builder()
+                .claim("roles", List.of("ROLE_USER"))
+                .subject("testuser")
+                .expiration(new Date(EXPIRATION * 1000))
+                .signWith(key, Jwts.SIG.HS256)
+                .compact();
+
+        assertNull(codec.verify(token));
+    }
+
+    @Test
+    void verify_UnknownKeyId_ReturnsNull() {
+        assertNull(codec.verify(jjwtToken("hs-2", "testuser", EXPIRATION)));
+    }
+
+    private SigningKey signingKey(String keyId) {
+        return new SigningKey(keyId, key, key, null, null);
+    }
+
+    private String jjwtToken(String keyId, String subject, long expiration) {
+        JwtBuilder builder = Jwts.builder();
+        if (keyId != null) {
+            builder.header().keyId(keyId);
+        }
+        return builder
+                .claim("rm", 129)
+                .id("jti-1")
+                .subject(subject)
+                .issuedAt(new Date(ISSUED_AT * 1000))
+                .expiration(new Date(expiration * 1000))
+                .signWith(key, Jwts.SIG.HS256)
+                .compact();
+    }
+
+}
@@ -0,0 +1,194 @@
+package io.github.authmicroservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.github.authmicroservice.model.dto.VerifiedToken;
+import io.github.authmicroservice.security.key.SigningKeyRing;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JwtServiceTest {
+
+    private static final String SECRET = "mySecretKeyForJWTTokenGenerationAndValidation1234567890";
+
+    private final TokenRevocationService revocationService = mock(TokenRevocationService.class);
+
+    private SigningKeyRing keyRing;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = new SigningKeyRing();
+        ReflectionTestUtils.setField(keyRing, "algorithmName", "HS256");
+        ReflectionTestUtils.setField(keyRing, "secretKey", SECRET);
+        ReflectionTestUtils.setField(keyRing, "privateKeyValue", "");
+        ReflectionTestUtils.setField(keyRing, "publicKeyValue", "");
+        ReflectionTestUtils.setField(keyRing, "retiredPublicKeys", List.of());
+        ReflectionTestUtils.setField(keyRing, "rotationPeriod", Duration.ZERO);
+        ReflectionTestUtils.setField(keyRing, "gracePeriod", Duration.ofHours(1));
+        ReflectionTestUtils.invokeMethod(keyRing, "init");
+    }
+
+    @Test
+    void verify_RepeatedToken_ServedFromCacheKeyedByDigest() throws Exception {
+        JwtService jwtService = jwtService(true, true);
+        String token = jwtService.generateToken(user("testuser", "ROLE_USER"));
+
+        VerifiedToken first = jwtService.verify(token);
+        VerifiedToken second = jwtService.verify(token);
+
+        assertSame(first, second);
+        Object digest = cache(jwtService).asMap().keySet().iterator().next();
+        ByteBuffer sha256 = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(sha256.getLong(), ReflectionTestUtils.getField(digest, "high"));
+        assertEquals(sha256.getLong(), ReflectionTestUtils.getField(digest, "low"));
+    }
+
+    @Test
+    void verify_CacheDisabled_ParsesEveryTime() {
+        JwtService jwtService = jwtService(false, true);
+        String token = jwtService.generateToken(user("testuser", "ROLE_USER"));
+
+        assertNotSame(jwtService.verify(token), jwtService.verify(token));
+    }
+
+    @Test
+    void verify_TokenRevokedAfterCaching_Rejected() {
+        JwtService jwtService = jwtService(true, true);
+        String token = jwtService.generateToken(user("testuser", "ROLE_USER"));
+        String jti = jwtService.verify(token).getJti();
+
+        when(revocationService.isRevoked(jti)).thenReturn(true);
+
+        assertThrows(JwtException.class, () -> jwtService.verify(token));
+        verify(revocationService, times(2)).isRevoked(jti);
+    }
+
+    @Test
+    void verify_CachedEntry_ExpiresAtTokenExpiration() {
+        JwtService jwtService = jwtService(true, true);
+        Instant expiration = Instant.now().plusSeconds(120);
+        jwtService.verify(token(builder -> builder.claim("rm", 1), expiration));
+
+        Cache<Object, VerifiedToken> cache = cache(jwtService);
+        Object digest = cache.asMap().keySet().iterator().next();
+        long expiresAfter = cache.policy().expireVariably().orElseThrow().getExpiresAfter(digest, TimeUnit.MILLISECONDS).orElseThrow();
+
+        long untilExpiration = expiration.toEpochMilli() - System.currentTimeMillis();
+        assertTrue(expiresAfter <= untilExpiration + 1000 && expiresAfter > untilExpiration - 5000, String.valueOf(expiresAfter));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void verify_TokenWithoutExpiration_Rejected(boolean cacheEnabled) {
+        JwtService jwtService = jwtService(cacheEnabled, true);
+        String token = Jwts.builder()
+                .claim("rm", 1)
+                .id("jti-1")
+                .subject("testuser")
+                .signWith((SecretKey) keyRing.getActiveKey().signingKey(), Jwts.SIG.HS256)
+                .compact();
+
+        JwtException exception = assertThrows(JwtException.class, () -> jwtService.verify(token));
+        assertEquals("JWT token has no expiration", exception.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void verify_RoleMaskClaim_DecodedToRoles(boolean fastCodec) {
+        JwtService jwtService = jwtService(false, fastCodec);
+
+        VerifiedToken verifiedToken = jwtService.verify(token(builder -> builder.claim("rm", 129), Instant.now().plusSeconds(60)));
+
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), verifiedToken.getRoles());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")),
+                verifiedToken.getAuthorities());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void verify_RoleMaskWithUnknownBits_Rejected(boolean fastCodec) {
+        JwtService jwtService = jwtService(false, fastCodec);
+        String token = token(builder -> builder.claim("rm", 1 << 12), Instant.now().plusSeconds(60));
+
+        assertThrows(JwtException.class, () -> jwtService.verify(token));
+    }
+
+    @Test
+    void verify_RolesListClaim_UsedWhenNoRoleMask() {
+        JwtService jwtService = jwtService(false, true);
+
+        VerifiedToken verifiedToken = jwtService.verify(
+                token(builder -> builder.claim("roles", List.of("ROLE_USER", "SCOPE_read")), Instant.now().plusSeconds(60)));
+
+        assertEquals(List.of("ROLE_USER", "SCOPE_read"), verifiedToken.getRoles());
+    }
+
+    @Test
+    void generateToken_NonRoleAuthority_FallsBackToRolesList() {
+        JwtService jwtService = jwtService(false, true);
+        String token = jwtService.generateToken(user("testuser", "ROLE_USER", "SCOPE_read"));
+
+        assertEquals(List.of("ROLE_USER", "SCOPE_read"), jwtService.verify(token).getRoles());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<Object, VerifiedToken> cache(JwtService jwtService) {
+        return (Cache<Object, VerifiedToken>) ReflectionTestUtils.getField(jwtService, "verifiedTokens");
+    }
+
+    private JwtService jwtService(boolean cacheEnabled, boolean fastCodec) {
+        JwtService jwtService = new JwtService(new SimpleMeterRegistry(), keyRing, revocationService);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "compactRoles", true);
+        ReflectionTestUtils.setField(jwtService, "fastCodecEnabled", fastCodec);
+        ReflectionTestUtils.setField(jwtService, "cacheEnabled", cacheEnabled);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 100L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        return jwtService;
+    }
+
+    private String token(UnaryOperator<JwtBuilder> claims, Instant expiration) {
+        return claims.apply(Jwts.builder())
+                .id("jti-1")
+                .subject("testuser")
+                .issuedAt(new Date())
+                .expiration(Date.from(expiration))
+                .signWith((SecretKey) keyRing.getActiveKey().signingKey(), Jwts.SIG.HS256)
+                .compact();
+    }
+
+    private static User user(String login, String... authorities) {
+        return new User(login, "password", Arrays.stream(authorities).map(SimpleGrantedAuthority::new).toList());
+    }
+
+}
@@ -0,0 +1,148 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.exception.InvalidRefreshTokenException;
+import io.github.authmicroservice.model.dto.UserPrincipal;
+import io.github.authmicroservice.model.entity.RefreshToken;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Репозиторий заменен списком строк в памяти: поиск по хешу и отзыв семейства работают над ним
+ */
+public class RefreshTokenServiceImplTest {
+
+    private final RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+
+    private final RefreshTokenServiceImpl service = new RefreshTokenServiceImpl(refreshTokenRepository, userDetailsService);
+
+    private final List<RefreshToken> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "refreshExpiration", Duration.ofDays(30));
+        ReflectionTestUtils.setField(service, "purgeBatchSize", 2);
+
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken row = invocation.getArgument(0);
+            rows.add(row);
+            return row;
+        });
+        when(refreshTokenRepository.findByTokenHashForUpdate(anyString())).thenAnswer(invocation -> rows.stream()
+                .filter(row -> row.getTokenHash().equals(invocation.getArgument(0)))
+                .findFirst());
+        when(userDetailsService.loadUserByUsername(anyString())).thenAnswer(invocation -> new UserPrincipal(
+                invocation.getArgument(0), "hash", "user@mail.com", true, List.of(Role.RoleType.USER)));
+        when(refreshTokenRepository.revokeFamily(any(UUID.class))).thenAnswer(invocation -> {
+            List<RefreshToken> family = rows.stream()
+                    .filter(row -> row.getFamilyId().equals(invocation.getArgument(0)) && !row.isRevoked())
+                    .toList();
+            family.forEach(row -> row.setRevoked(true));
+            return family.size();
+        });
+    }
+
+    @Test
+    void issue_StoresOnlyHashOfToken() {
+        String token = service.issue("testuser");
+
+        RefreshToken row = rows.get(0);
+        assertEquals("testuser", row.getUserLogin());
+        assertEquals(64, row.getTokenHash().length());
+        assertNotEquals(token, row.getTokenHash());
+        assertTrue(row.getExpiresAt().isAfter(Instant.now().plus(Duration.ofDays(29))));
+    }
+
+    @Test
+    void rotate_ValidToken_IssuesNextTokenOfSameFamily() {
+        String first = service.issue("testuser");
+
+        RefreshTokenService.Rotation rotation = service.rotate(first);
+
+        assertEquals("testuser", rotation.user().getLogin());
+        assertNotEquals(first, rotation.refreshToken());
+        assertEquals(2, rows.size());
+        assertTrue(rows.get(0).isUsed());
+        assertFalse(rows.get(1).isUsed());
+        assertEquals(rows.get(0).getFamilyId(), rows.get(1).getFamilyId());
+
+        assertEquals("testuser", service.rotate(rotation.refreshToken()).user().getLogin());
+    }
+
+    @Test
+    void rotate_ReusedToken_RevokesWholeFamily() {
+        String first = service.issue("testuser");
+        String second = service.rotate(first).refreshToken();
+        String otherSignin = service.issue("testuser");
+
+        InvalidRefreshTokenException exception = assertThrows(InvalidRefreshTokenException.class, () -> service.rotate(first));
+
+        assertEquals("Refresh token has already been used", exception.getMessage());
+        assertTrue(rows.get(0).isRevoked());
+        assertTrue(rows.get(1).isRevoked());
+        assertFalse(rows.get(2).isRevoked());
+        assertThrows(InvalidRefreshTokenException.class, () -> service.rotate(second));
+        assertEquals("testuser", service.rotate(otherSignin).user().getLogin());
+    }
+
+    @Test
+    void rotate_ExpiredToken_Rejected() {
+        String token = service.issue("testuser");
+        rows.get(0).setExpiresAt(Instant.now().minusSeconds(1));
+
+        InvalidRefreshTokenException exception = assertThrows(InvalidRefreshTokenException.class, () -> service.rotate(token));
+
+        assertEquals("Refresh token has expired", exception.getMessage());
+        assertFalse(rows.get(0).isUsed());
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+    }
+
+    @Test
+    void rotate_DisabledOwner_RejectedWithoutConsumingToken() {
+        String token = service.issue("testuser");
+        when(userDetailsService.loadUserByUsername("testuser")).thenThrow(new UsernameNotFoundException("User is disabled"));
+
+        InvalidRefreshTokenException exception = assertThrows(InvalidRefreshTokenException.class, () -> service.rotate(token));
+
+        assertEquals("Refresh token owner is not available", exception.getMessage());
+        assertFalse(rows.get(0).isUsed());
+        assertEquals(1, rows.size());
+    }
+
+    @Test
+    void rotate_UnknownToken_Rejected() {
+        assertThrows(InvalidRefreshTokenException.class, () -> service.rotate("unknown"));
+    }
+
+    @Test
+    void purgeExpired_DeletesInBatchesUntilLastPartialBatch() {
+        when(refreshTokenRepository.deleteExpiredBatch(any(Instant.class), eq(2))).thenReturn(2, 2, 1);
+
+        assertEquals(5, service.purgeExpired());
+    }
+
+}
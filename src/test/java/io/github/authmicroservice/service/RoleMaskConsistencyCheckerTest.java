@@ -0,0 +1,59 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.repository.RoleMaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RoleMaskConsistencyCheckerTest {
+
+    private final RoleMaskRepository roleMaskRepository = mock(RoleMaskRepository.class);
+
+    private final UserPrincipalCache principalCache = mock(UserPrincipalCache.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RoleMaskConsistencyChecker checker =
+            new RoleMaskConsistencyChecker(roleMaskRepository, principalCache, meterRegistry, 2);
+
+    @Test
+    void check_WalksAllPagesAndRepairsOnlyMismatchedUsers() {
+        when(roleMaskRepository.findPage(null, 2)).thenReturn(List.of(
+                new RoleMaskRepository.MaskRow("alice", 1, 1),
+                new RoleMaskRepository.MaskRow("bob", 0, 129)));
+        when(roleMaskRepository.findPage("bob", 2)).thenReturn(List.of(
+                new RoleMaskRepository.MaskRow("carol", 3, 1),
+                new RoleMaskRepository.MaskRow("dave", 8, 0)));
+        when(roleMaskRepository.findPage("dave", 2)).thenReturn(List.of());
+        when(roleMaskRepository.repair("bob", 0, 129)).thenReturn(true);
+        when(roleMaskRepository.repair("dave", 8, 0)).thenReturn(true);
+
+        assertEquals(2, checker.check());
+
+        verify(roleMaskRepository, never()).repair(eq("alice"), anyInt(), anyInt());
+        verify(principalCache).evict("bob");
+        verify(principalCache).evict("dave");
+        verify(principalCache, never()).evict("carol");
+        assertEquals(2, meterRegistry.get("users.role-mask.repaired").counter().count());
+    }
+
+    @Test
+    void check_ConcurrentlyChangedMask_IsNotCountedAsRepaired() {
+        when(roleMaskRepository.findPage(null, 2)).thenReturn(List.of(new RoleMaskRepository.MaskRow("alice", 1, 3)));
+
+        assertEquals(0, checker.check());
+
+        verify(principalCache, never()).evict(anyString());
+    }
+
+}
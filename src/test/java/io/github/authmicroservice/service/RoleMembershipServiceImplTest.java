@@ -0,0 +1,157 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.RoleMembersResponse;
+import io.github.authmicroservice.model.dto.UserRoleAssignment;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.repository.UserRoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RoleMembershipServiceImplTest {
+
+    private final UserRoleRepository userRoleRepository = mock(UserRoleRepository.class);
+
+    private final CacheInvalidationBus invalidationBus = mock(CacheInvalidationBus.class);
+
+    private final RoleMembershipServiceImpl service =
+            new RoleMembershipServiceImpl(userRoleRepository, invalidationBus, mock(PlatformTransactionManager.class));
+
+    @BeforeEach
+    void setUp() {
+        when(userRoleRepository.streamAllAssignments()).thenAnswer(invocation -> Stream.of(
+                new UserRoleAssignment(1L, "dave", Role.RoleType.DEAL_SUPERUSER),
+                new UserRoleAssignment(2L, "alice", Role.RoleType.DEAL_SUPERUSER),
+                new UserRoleAssignment(3L, "alice", Role.RoleType.USER),
+                new UserRoleAssignment(4L, "carol", Role.RoleType.USER),
+                new UserRoleAssignment(5L, "bob", Role.RoleType.DEAL_SUPERUSER)));
+        service.rebuild();
+    }
+
+    @Test
+    void getMembers_PagesByCursorInLoginOrder() {
+        RoleMembersResponse first = service.getMembers(Role.RoleType.DEAL_SUPERUSER, null, 2);
+        assertEquals(List.of("alice", "bob"), first.getLogins());
+        assertEquals("bob", first.getNextCursor());
+        assertEquals(3, first.getTotal());
+
+        RoleMembersResponse last = service.getMembers(Role.RoleType.DEAL_SUPERUSER, first.getNextCursor(), 2);
+        assertEquals(List.of("dave"), last.getLogins());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void refresh_NewAndChangedUsers_UpdatesMembershipAndCounts() {
+        when(userRoleRepository.findAssignmentsByUserLogins(anyCollection())).thenReturn(List.of(
+                new UserRoleAssignment(6L, "bobby", Role.RoleType.DEAL_SUPERUSER),
+                new UserRoleAssignment(7L, "aaron", Role.RoleType.DEAL_SUPERUSER),
+                new UserRoleAssignment(8L, "dave", Role.RoleType.USER)));
+
+        service.refresh(List.of("bobby", "aaron", "dave"));
+
+        verify(invalidationBus).publish(RoleMembershipServiceImpl.REGION, "bobby,aaron,dave");
+        verify(userRoleRepository).findAssignmentsByUserLogins(anyCollection());
+        assertEquals(List.of("aaron", "alice", "bob", "bobby"),
+                service.getMembers(Role.RoleType.DEAL_SUPERUSER, null, 10).getLogins());
+        assertEquals(List.of("bobby"), service.getMembers(Role.RoleType.DEAL_SUPERUSER, "bob", 10).getLogins());
+        assertEquals(List.of("alice", "carol", "dave"), service.getMembers(Role.RoleType.USER, null, 10).getLogins());
+        assertEquals(4, service.countMembers().get(Role.RoleType.DEAL_SUPERUSER));
+        assertEquals(3, service.countMembers().get(Role.RoleType.USER));
+        assertEquals(0, service.countMembers().get(Role.RoleType.ADMIN));
+    }
+
+    @Test
+    void invalidate_MessageFromAnotherInstance_ReloadsWholeBatchWithOneQuery() {
+        when(userRoleRepository.findAssignmentsByUserLogins(List.of("carol", "erin")))
+                .thenReturn(List.of(new UserRoleAssignment(9L, "erin", Role.RoleType.ADMIN)));
+
+        service.invalidate("carol,erin");
+
+        verify(userRoleRepository).findAssignmentsByUserLogins(List.of("carol", "erin"));
+        assertEquals(List.of("alice"), service.getMembers(Role.RoleType.USER, null, 10).getLogins());
+        assertEquals(List.of("erin"), service.getMembers(Role.RoleType.ADMIN, null, 10).getLogins());
+        assertFalse(service.acceptsOwnMessages());
+    }
+
+    @Test
+    void invalidate_OlderReloadAppliedAfterNewer_KeepsNewerRoles() throws Exception {
+        CountDownLatch olderLoaded = new CountDownLatch(1);
+        CountDownLatch newerApplied = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(userRoleRepository.findAssignmentsByUserLogins(anyCollection())).thenAnswer(invocation -> {
+            if (calls.getAndIncrement() == 0) {
+                olderLoaded.countDown();
+                assertTrue(newerApplied.await(5, TimeUnit.SECONDS));
+                return List.of(new UserRoleAssignment(4L, "carol", Role.RoleType.USER));
+            }
+            return List.of(new UserRoleAssignment(10L, "carol", Role.RoleType.ADMIN));
+        });
+
+        CompletableFuture<Void> older = CompletableFuture.runAsync(() -> service.invalidate("carol"));
+        assertTrue(olderLoaded.await(5, TimeUnit.SECONDS));
+        service.invalidate("carol");
+        newerApplied.countDown();
+        older.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("carol"), service.getMembers(Role.RoleType.ADMIN, null, 10).getLogins());
+        assertEquals(List.of("alice"), service.getMembers(Role.RoleType.USER, null, 10).getLogins());
+    }
+
+    @Test
+    void refresh_ReloadFailsAfterCommit_DoesNotPropagateToCaller() {
+        when(userRoleRepository.findAssignmentsByUserLogins(anyCollection())).thenThrow(new IllegalStateException("db down"));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.refresh(List.of("carol"));
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+            assertEquals(1, synchronizations.size());
+            assertDoesNotThrow(() -> synchronizations.get(0).afterCommit());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(List.of("alice", "carol"), service.getMembers(Role.RoleType.USER, null, 10).getLogins());
+    }
+
+    @Test
+    void encode_LargeBatch_SplitsIntoMessagesUnderPayloadLimit() {
+        List<String> logins = IntStream.range(0, 2000).mapToObj(i -> "user-" + i).toList();
+
+        List<String> messages = RoleMembershipServiceImpl.encode(logins);
+
+        assertTrue(messages.size() > 1);
+        assertTrue(messages.stream().allMatch(message -> message.length() <= RoleMembershipServiceImpl.MAX_MESSAGE_LENGTH));
+        assertEquals(logins, messages.stream().flatMap(message -> RoleMembershipServiceImpl.decode(message).stream()).toList());
+    }
+
+    @Test
+    void encode_LoginsWithSeparatorsAndUnicode_RoundTrip() {
+        List<String> logins = List.of("a,b", "c d+e", "пользователь", "%41");
+
+        List<String> messages = RoleMembershipServiceImpl.encode(logins);
+
+        assertEquals(1, messages.size());
+        assertEquals(logins, RoleMembershipServiceImpl.decode(messages.get(0)));
+    }
+
+}
@@ -0,0 +1,61 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.TokenIntrospectionResponse;
+import io.github.authmicroservice.model.dto.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TokenIntrospectionServiceImplTest {
+
+    private final JwtService jwtService = mock(JwtService.class);
+
+    /**
+     * Порции по 100 токенов, параллельно от 8, два потока и очередь на одну задачу: часть проверок идет в потоке вызова
+     */
+    private final TokenIntrospectionServiceImpl service =
+            new TokenIntrospectionServiceImpl(jwtService, new SimpleMeterRegistry(), 100, 8, 2, 1);
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "shutdown");
+    }
+
+    @Test
+    void introspect_LargeBatchInDedicatedPool_KeepsRequestOrder() {
+        when(jwtService.verify(anyString())).thenAnswer(invocation -> {
+            String token = invocation.getArgument(0);
+            if (token.endsWith("7")) {
+                throw new JwtException("Invalid signature");
+            }
+            return new VerifiedToken("jti-" + token, token, List.of("ROLE_USER"), Instant.now(), Instant.now().plusSeconds(60));
+        });
+        List<String> tokens = IntStream.range(0, 250).mapToObj(i -> "user" + i).toList();
+
+        List<TokenIntrospectionResponse> results = new ArrayList<>();
+        service.introspect(tokens, results::add);
+
+        assertEquals(tokens.size(), results.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.get(i).endsWith("7")) {
+                assertFalse(results.get(i).isActive());
+            } else {
+                assertEquals(tokens.get(i), results.get(i).getSub());
+            }
+        }
+    }
+
+}
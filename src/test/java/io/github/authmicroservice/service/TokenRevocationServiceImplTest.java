@@ -0,0 +1,161 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.exception.TokenNotRevocableException;
+import io.github.authmicroservice.model.dto.VerifiedToken;
+import io.github.authmicroservice.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TokenRevocationServiceImplTest {
+
+    private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+
+    private final CacheInvalidationBus invalidationBus = mock(CacheInvalidationBus.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TokenRevocationServiceImpl service =
+            new TokenRevocationServiceImpl(revokedTokenRepository, invalidationBus, meterRegistry);
+
+    @Test
+    void isRevoked_RevokedJti_Rejected() {
+        init(1000, 0.001);
+
+        service.revoke(token("jti-1"));
+        when(revokedTokenRepository.existsById("jti-1")).thenReturn(true);
+
+        assertTrue(service.isRevoked("jti-1"));
+        verify(revokedTokenRepository).insertIfAbsent(eq("jti-1"), any(Instant.class), any(Instant.class));
+        verify(invalidationBus).publish(TokenRevocationServiceImpl.REGION, "jti-1");
+    }
+
+    @Test
+    void isRevoked_RevokedOnAnotherInstance_RejectedAfterNotification() {
+        init(1000, 0.001);
+        when(revokedTokenRepository.existsById("jti-remote")).thenReturn(true);
+
+        service.invalidate("jti-remote");
+
+        assertTrue(service.isRevoked("jti-remote"));
+    }
+
+    @Test
+    void isRevoked_FilterMiss_SkipsTable() {
+        init(1000, 0.001);
+
+        assertFalse(service.isRevoked("never-revoked"));
+
+        verify(revokedTokenRepository, never()).existsById(anyString());
+    }
+
+    /**
+     * Фильтр на 64 бита, заполненный 200 ключами, отвечает "возможно присутствует" на любой ключ
+     */
+    @Test
+    void isRevoked_BloomHitOnNeverRevokedToken_FallsThroughToTableAndCountsFalsePositive() {
+        when(revokedTokenRepository.findActiveJtis(any(Instant.class)))
+                .thenReturn(IntStream.range(0, 200).mapToObj(i -> "revoked-" + i).toList());
+        init(1, 0.5);
+
+        assertFalse(service.isRevoked("never-revoked"));
+
+        verify(revokedTokenRepository).existsById("never-revoked");
+        assertEquals(1, meterRegistry.get("jwt.revocation.false-positives").counter().count());
+    }
+
+    @Test
+    void revoke_SameJtiTwice_SecondRevokeSucceeds() {
+        init(1000, 0.001);
+        when(revokedTokenRepository.insertIfAbsent(eq("jti-1"), any(Instant.class), any(Instant.class))).thenReturn(1, 0);
+        when(revokedTokenRepository.existsById("jti-1")).thenReturn(true);
+
+        service.revoke(token("jti-1"));
+        assertDoesNotThrow(() -> service.revoke(token("jti-1")));
+
+        assertTrue(service.isRevoked("jti-1"));
+        verify(revokedTokenRepository, times(2)).insertIfAbsent(eq("jti-1"), any(Instant.class), any(Instant.class));
+    }
+
+    @Test
+    void revoke_TokenWithoutJti_Rejected() {
+        init(1000, 0.001);
+
+        assertThrows(TokenNotRevocableException.class, () -> service.revoke(token(null)));
+
+        verify(revokedTokenRepository, never()).insertIfAbsent(any(), any(), any());
+    }
+
+    @Test
+    void rebuild_PurgesExpiredRowsInBatchesAndDropsThemFromFilter() {
+        init(1000, 0.001);
+        service.invalidate("expired");
+        when(revokedTokenRepository.deleteExpiredBatch(any(Instant.class), eq(2))).thenReturn(2, 2, 1);
+        when(revokedTokenRepository.findActiveJtis(any(Instant.class))).thenReturn(List.of("active"));
+        when(revokedTokenRepository.existsById("active")).thenReturn(true);
+        clearInvocations(revokedTokenRepository);
+
+        service.rebuild();
+
+        verify(revokedTokenRepository, times(3)).deleteExpiredBatch(any(Instant.class), eq(2));
+        assertTrue(service.isRevoked("active"));
+        assertFalse(service.isRevoked("expired"));
+        verify(revokedTokenRepository, never()).existsById("expired");
+    }
+
+    /**
+     * Отзыв, зафиксированный после чтения таблицы перестроением, не должен потеряться при замене фильтра
+     */
+    @Test
+    void rebuild_RevocationDuringRebuild_KeptInNewFilter() throws Exception {
+        init(1000, 0.001);
+        Thread[] revoker = new Thread[1];
+        when(revokedTokenRepository.findActiveJtis(any(Instant.class))).thenAnswer(invocation -> {
+            revoker[0] = new Thread(() -> service.revoke(token("concurrent")));
+            revoker[0].start();
+            while (revoker[0].getState() != Thread.State.BLOCKED) {
+                Thread.onSpinWait();
+            }
+            return List.of();
+        });
+
+        service.rebuild();
+        revoker[0].join();
+        when(revokedTokenRepository.existsById("concurrent")).thenReturn(true);
+
+        assertTrue(service.isRevoked("concurrent"));
+    }
+
+    private void init(int expectedTokens, double falsePositiveRate) {
+        ReflectionTestUtils.setField(service, "expectedTokens", expectedTokens);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", falsePositiveRate);
+        ReflectionTestUtils.setField(service, "purgeBatchSize", 2);
+        when(revokedTokenRepository.deleteExpiredBatch(any(Instant.class), anyInt())).thenReturn(0);
+        ReflectionTestUtils.invokeMethod(service, "init");
+    }
+
+    private static VerifiedToken token(String jti) {
+        return new VerifiedToken(jti, "user", List.of("ROLE_USER"), Instant.now(), Instant.now().plusSeconds(3600));
+    }
+
+}
@@ -0,0 +1,46 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.UserSummary;
+import io.github.authmicroservice.model.dto.UserExportRow;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.enums.Provider;
+import io.github.authmicroservice.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UserExportServiceImplTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final UserExportServiceImpl exportService = new UserExportServiceImpl(userRepository);
+
+    @Test
+    void export_GroupsConsecutiveRowsByLoginAndClosesStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userRepository.streamExportRows()).thenReturn(Stream.of(
+                new UserExportRow("alice", "alice@mail.com", Provider.LOCAL, true, null, Role.RoleType.USER),
+                new UserExportRow("alice", "alice@mail.com", Provider.LOCAL, true, null, Role.RoleType.ADMIN),
+                new UserExportRow("bob", "bob@mail.com", Provider.GITHUB, true, "Bob", null),
+                new UserExportRow("carol", "carol@mail.com", Provider.LOCAL, false, null, Role.RoleType.USER))
+                .onClose(() -> closed.set(true)));
+
+        List<UserSummary> exported = new ArrayList<>();
+        long count = exportService.export(exported::add);
+
+        assertEquals(3, count);
+        assertEquals(List.of("alice", "bob", "carol"), exported.stream().map(UserSummary::getLogin).toList());
+        assertEquals(List.of(Role.RoleType.USER, Role.RoleType.ADMIN), exported.get(0).getRoles());
+        assertEquals(List.of(), exported.get(1).getRoles());
+        assertTrue(closed.get());
+    }
+
+}
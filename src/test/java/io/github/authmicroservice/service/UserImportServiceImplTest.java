@@ -0,0 +1,138 @@
+package io.github.authmicroservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.authmicroservice.model.dto.UserImportResponse;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.entity.User;
+import io.github.authmicroservice.model.enums.Provider;
+import io.github.authmicroservice.model.enums.UserImportFormat;
+import io.github.authmicroservice.repository.UserRepository;
+import io.github.authmicroservice.security.encoder.CustomPasswordEncoder;
+import io.github.authmicroservice.util.SaltGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UserImportServiceImplTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final RoleRegistry roleRegistry = mock(RoleRegistry.class);
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+
+    private final CustomPasswordEncoder passwordEncoder =
+            new CustomPasswordEncoder(1000, new SaltGenerator("testGlobalSalt", true), new SimpleMeterRegistry());
+
+    private final List<User> persisted = new ArrayList<>();
+
+    private final UserImportServiceImpl service = new UserImportServiceImpl(
+            userRepository,
+            roleRegistry,
+            passwordEncoder,
+            mock(RoleMembershipService.class),
+            new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            entityManager,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            new ObjectMapper(),
+            new SimpleMeterRegistry(),
+            2,
+            2,
+            2,
+            100);
+
+    @BeforeEach
+    void setUp() {
+        Map<Role.RoleType, Role> roles = new EnumMap<>(Role.RoleType.class);
+        Arrays.stream(Role.RoleType.values()).forEach(type -> roles.put(type, Role.builder().id(type).build()));
+        when(roleRegistry.getRoles()).thenReturn(roles);
+        when(roleRegistry.findReference(any())).thenAnswer(invocation ->
+                Optional.of(Role.builder().id(invocation.getArgument(0)).build()));
+        when(userRepository.findExistingLogins(anyCollection())).thenReturn(List.of("taken"));
+        when(userRepository.findExistingEmails(anyCollection(), eq(Provider.LOCAL))).thenReturn(List.of());
+        doAnswer(invocation -> persisted.add(invocation.getArgument(0))).when(entityManager).persist(any(User.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void importUsers_Ndjson_HashesPasswordsKeepsHashesAndReportsBadRows() throws Exception {
+        String existingHash = passwordEncoder.encode("secret123");
+
+        UserImportResponse response = service.importUsers(stream(
+                "{\"login\":\"alice\",\"email\":\"alice@mail.com\",\"password\":\"password123\"}",
+                "{\"login\":\"bob\",\"email\":\"bob@mail.com\",\"passwordHash\":\"" + existingHash + "\",\"roles\":[\"ADMIN\"]}",
+                "{\"login\":\"taken\",\"email\":\"taken@mail.com\",\"password\":\"password123\"}",
+                "{\"login\":\"carol\",\"email\":\"carol@mail.com\",\"passwordHash\":\"plain\"}",
+                "{\"login\":\"dave\",\"email\":\"not-an-email\",\"password\":\"password123\"}"), UserImportFormat.NDJSON);
+
+        assertEquals(5, response.getProcessed());
+        assertEquals(2, response.getImported());
+        assertEquals(List.of(3L, 4L, 5L), response.getErrors().stream().map(error -> error.getLine()).toList());
+
+        User alice = persisted.get(0);
+        assertTrue(passwordEncoder.matches("password123", alice.getPassword(), "alice", "alice@mail.com"));
+        assertEquals(Role.RoleType.USER, alice.getRoles().get(0).getRole().getId());
+        assertEquals(Provider.LOCAL, alice.getProvider());
+        User bob = persisted.get(1);
+        assertEquals(existingHash, bob.getPassword());
+        assertEquals(Role.RoleType.ADMIN, bob.getRoles().get(0).getRole().getId());
+    }
+
+    @Test
+    void importUsers_CsvWithFailingChunk_ImportsRemainingRowsOneByOne() throws Exception {
+        doAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if (user.getLogin().equals("broken")) {
+                throw new PersistenceException("duplicate key value violates unique constraint");
+            }
+            return persisted.add(user);
+        }).when(entityManager).persist(any(User.class));
+
+        UserImportResponse response = service.importUsers(stream(
+                "login,email,password,roles",
+                "alice,alice@mail.com,password123,USER;ADMIN",
+                "broken,\"broken@mail.com\",password123,",
+                "erin,erin@mail.com,password123,USER"), UserImportFormat.CSV);
+
+        assertEquals(3, response.getProcessed());
+        assertEquals(2, response.getImported());
+        assertEquals(1, response.getFailed());
+        assertEquals("broken", response.getErrors().get(0).getLogin());
+        assertEquals(List.of("alice", "erin"), persisted.stream().map(User::getLogin).distinct().toList());
+        assertEquals(2, persisted.stream().filter(user -> user.getLogin().equals("alice")).findFirst().orElseThrow().getRoles().size());
+    }
+
+    private static InputStream stream(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,82 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class UserPrincipalCacheTest {
+
+    private static final String LOGIN = "testuser";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CacheInvalidationBus invalidationBus = mock(CacheInvalidationBus.class);
+
+    private final UserPrincipalCache cache = new UserPrincipalCache(meterRegistry, invalidationBus, true, 100, Duration.ofMinutes(5));
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_RepeatedLookup_LoadsOnce() {
+        UserPrincipal first = cache.get(LOGIN, this::load);
+        UserPrincipal second = cache.get(LOGIN, this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "users.principals").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void evict_OutsideTransaction_EvictsImmediately() {
+        cache.get(LOGIN, this::load);
+
+        cache.evict(LOGIN);
+        cache.get(LOGIN, this::load);
+
+        assertEquals(2, loads.get());
+        verify(invalidationBus).publish("user", LOGIN);
+    }
+
+    @Test
+    void evict_InsideTransaction_EvictsAfterCompletion() {
+        cache.get(LOGIN, this::load);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict(LOGIN);
+        cache.get(LOGIN, this::load);
+        assertEquals(1, loads.get());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        cache.get(LOGIN, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    private UserPrincipal load(String login) {
+        loads.incrementAndGet();
+        return new UserPrincipal(login, "hash", "test@example.com", true, List.of());
+    }
+
+}
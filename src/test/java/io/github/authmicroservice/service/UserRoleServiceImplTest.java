@@ -0,0 +1,98 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.UserRolesRequest;
+import io.github.authmicroservice.model.entity.Role;
+import io.github.authmicroservice.model.entity.User;
+import io.github.authmicroservice.model.entity.UserRole;
+import io.github.authmicroservice.repository.UserRepository;
+import io.github.authmicroservice.repository.UserRoleRepository;
+import io.github.authmicroservice.util.RoleMask;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserRoleServiceImplTest {
+
+    private static final String LOGIN = "testuser";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final RoleRegistry roleRegistry = mock(RoleRegistry.class);
+
+    private final UserRoleRepository userRoleRepository = mock(UserRoleRepository.class);
+
+    private final UserPrincipalCache principalCache = mock(UserPrincipalCache.class);
+
+    private final RoleMembershipService roleMembershipService = mock(RoleMembershipService.class);
+
+    private final UserRoleServiceImpl userRoleService =
+            new UserRoleServiceImpl(userRepository, roleRegistry, userRoleRepository, principalCache, roleMembershipService);
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.existsById(LOGIN)).thenReturn(true);
+        when(userRepository.getReferenceById(LOGIN)).thenReturn(User.builder().login(LOGIN).build());
+        when(roleRegistry.findReference(any())).thenAnswer(invocation ->
+                Optional.of(Role.builder().id(invocation.getArgument(0)).build()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveUserRoles_ChangedRoles_DeletesRemovedAndInsertsAdded() {
+        when(userRoleRepository.findRoleTypesByUserLogin(LOGIN)).thenReturn(List.of(Role.RoleType.USER, Role.RoleType.ADMIN));
+
+        userRoleService.saveUserRoles(request(Role.RoleType.USER, Role.RoleType.SUPERUSER, Role.RoleType.SUPERUSER));
+
+        verify(userRoleRepository).deleteByUserLoginAndRoleTypes(LOGIN, EnumSet.of(Role.RoleType.ADMIN));
+        ArgumentCaptor<List<UserRole>> saved = ArgumentCaptor.forClass(List.class);
+        verify(userRoleRepository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals(Role.RoleType.SUPERUSER, saved.getValue().get(0).getRole().getId());
+        verify(userRepository).updateRoleMask(List.of(LOGIN), RoleMask.fromRoleTypes(List.of(Role.RoleType.USER, Role.RoleType.SUPERUSER)));
+        verify(principalCache).evict(LOGIN);
+        verify(roleMembershipService).refresh(LOGIN);
+    }
+
+    @Test
+    void saveUserRoles_SameRoles_WritesNothing() {
+        when(userRoleRepository.findRoleTypesByUserLogin(LOGIN)).thenReturn(List.of(Role.RoleType.ADMIN, Role.RoleType.USER));
+
+        userRoleService.saveUserRoles(request(Role.RoleType.USER, Role.RoleType.ADMIN));
+
+        verify(userRoleRepository, never()).deleteByUserLoginAndRoleTypes(anyString(), any());
+        verify(userRoleRepository, never()).saveAll(anyList());
+        verify(principalCache, never()).evict(anyString());
+        verify(roleMembershipService, never()).refresh(anyString());
+    }
+
+    @Test
+    void saveUserRoles_UnknownUser_ThrowsException() {
+        when(userRepository.existsById(LOGIN)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> userRoleService.saveUserRoles(request(Role.RoleType.USER)));
+        verify(userRoleRepository, never()).saveAll(anyList());
+    }
+
+    private static UserRolesRequest request(Role.RoleType... roles) {
+        UserRolesRequest request = new UserRolesRequest();
+        request.setLogin(LOGIN);
+        request.setRoles(List.of(roles));
+        return request;
+    }
+
+}
@@ -0,0 +1,49 @@
+package io.github.authmicroservice.service;
+
+import io.github.authmicroservice.model.dto.UserSearchRequest;
+import io.github.authmicroservice.model.dto.UserSearchResponse;
+import io.github.authmicroservice.model.dto.UserSummary;
+import io.github.authmicroservice.model.enums.Provider;
+import io.github.authmicroservice.repository.UserSearchRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UserSearchServiceImplTest {
+
+    private final UserSearchRepository userSearchRepository = mock(UserSearchRepository.class);
+
+    private final UserSearchServiceImpl userSearchService = new UserSearchServiceImpl(userSearchRepository);
+
+    @Test
+    void search_MoreRowsThanPage_ReturnsCursorOfLastUser() {
+        when(userSearchRepository.search(any(), eq(3))).thenReturn(List.of(user("a"), user("b"), user("c")));
+
+        UserSearchResponse response = userSearchService.search(UserSearchRequest.builder().size(2).build());
+
+        assertEquals(List.of("a", "b"), response.getUsers().stream().map(UserSummary::getLogin).toList());
+        assertEquals("b", response.getNextCursor());
+    }
+
+    @Test
+    void search_LastPage_ReturnsNoCursor() {
+        when(userSearchRepository.search(any(), eq(3))).thenReturn(List.of(user("a"), user("b")));
+
+        UserSearchResponse response = userSearchService.search(UserSearchRequest.builder().size(2).build());
+
+        assertEquals(2, response.getUsers().size());
+        assertNull(response.getNextCursor());
+    }
+
+    private static UserSummary user(String login) {
+        return new UserSummary(login, login + "@mail.com", Provider.LOCAL, true, null, List.of());
+    }
+
+}
@@ -0,0 +1,59 @@
+package io.github.authmicroservice.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomFilterTest {
+
+    @Test
+    void mightContain_InsertedKeys_NoFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.001);
+        List<String> keys = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID().toString()).toList();
+
+        keys.forEach(filter::put);
+
+        keys.forEach(key -> assertTrue(filter.mightContain(key), key));
+    }
+
+    @Test
+    void mightContain_AtExpectedLoad_FalsePositiveRateNearTarget() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("revoked-" + i));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("active-" + i))
+                .count();
+
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    /**
+     * m = -n * ln(p) / ln(2)^2, округленное до 64 бит; k = m / n * ln(2)
+     */
+    @Test
+    void create_SizesBitsAndHashesFromExpectedTokens() {
+        BloomFilter filter = BloomFilter.create(100_000, 0.001);
+
+        assertEquals(1_437_760L, ReflectionTestUtils.getField(filter, "bitCount"));
+        assertEquals(10, ReflectionTestUtils.getField(filter, "hashCount"));
+
+        BloomFilter small = BloomFilter.create(1, 0.5);
+        assertEquals(64L, ReflectionTestUtils.getField(small, "bitCount"));
+    }
+
+    @Test
+    void create_InvalidParameters_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 0));
+    }
+
+}
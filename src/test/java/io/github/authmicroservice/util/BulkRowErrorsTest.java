@@ -0,0 +1,35 @@
+package io.github.authmicroservice.util;
+
+import io.github.authmicroservice.model.dto.BulkRowError;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkRowErrorsTest {
+
+    @Test
+    void add_MoreErrorsThanLimit_CountsAllKeepsEarliestLines() {
+        BulkRowErrors errors = new BulkRowErrors(3);
+
+        for (long line : List.of(7L, 2L, 9L, 5L, 1L, 8L)) {
+            errors.add(line, "user" + line, "error");
+        }
+
+        assertEquals(6, errors.count());
+        assertEquals(List.of(1L, 2L, 5L), errors.toList().stream().map(BulkRowError::getLine).toList());
+    }
+
+    @Test
+    void add_ZeroLimit_OnlyCounts() {
+        BulkRowErrors errors = new BulkRowErrors(0);
+
+        errors.add(1, "user", "error");
+
+        assertEquals(1, errors.count());
+        assertTrue(errors.toList().isEmpty());
+    }
+
+}